@@ -0,0 +1,76 @@
+package ch.epfl.tchu;
+
+/**
+ * <b>Class enumerating the sub-multisets of a given size of a multiset</b>
+ * <p>A multiset is given by the multiplicity of each of its distinct elements (its count vector).
+ * Every distinct sub-multiset is produced exactly once, as a count vector, without hashing
+ * and without building intermediate multisets.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class MultisetCombinations {
+    private MultisetCombinations() {
+    }
+
+    /**
+     * <b>Functional interface receiving the enumerated sub-multisets</b>
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * Called once for each sub-multiset
+         *
+         * @param counts multiplicity of each element in the sub-multiset, indexed like the multiset's count vector.
+         *               The array is reused between calls and must neither be modified nor kept.
+         */
+        void visit(int[] counts);
+    }
+
+    /**
+     * <b>Call the visitor on every sub-multiset of given size of a multiset</b>
+     * <p>The sub-multisets are visited in decreasing lexicographic order of their count vector.</p>
+     *
+     * @param counts  multiplicity of each element of the multiset
+     * @param size    size of the sub-multisets
+     * @param visitor Visitor called on each sub-multiset
+     * @throws IllegalArgumentException if a multiplicity is negative or if <i>size</i> is not between 0
+     *                                  and the size of the multiset (included)
+     */
+    public static void forEach(int[] counts, int size, Visitor visitor) {
+        //suffixSizes[i] is the number of elements of the multiset from index i to the end
+        int[] suffixSizes = new int[counts.length + 1];
+        for (int i = counts.length - 1; i >= 0; i--) {
+            Preconditions.checkArgument(counts[i] >= 0);
+            suffixSizes[i] = suffixSizes[i + 1] + counts[i];
+        }
+        Preconditions.checkArgument(0 <= size && size <= suffixSizes[0]);
+
+        visit(counts, suffixSizes, new int[counts.length], 0, size, visitor);
+    }
+
+    /**
+     * Choose the multiplicity of the element at <i>index</i>, then recurse on the next ones
+     *
+     * @param counts      multiplicity of each element of the multiset
+     * @param suffixSizes number of elements of the multiset from each index to the end
+     * @param chosen      multiplicities already chosen for the previous elements
+     * @param index       index of the element to choose
+     * @param remaining   number of elements still to choose
+     * @param visitor     Visitor called on each sub-multiset
+     */
+    private static void visit(int[] counts, int[] suffixSizes, int[] chosen, int index, int remaining, Visitor visitor) {
+        if (remaining == 0) {
+            visitor.visit(chosen);
+            return;
+        }
+        //the elements after this one must be able to complete the sub-multiset
+        int min = Math.max(0, remaining - suffixSizes[index + 1]);
+        int max = Math.min(counts[index], remaining);
+        for (int n = max; n >= min; n--) {
+            chosen[index] = n;
+            visit(counts, suffixSizes, chosen, index + 1, remaining - n, visitor);
+        }
+        chosen[index] = 0;
+    }
+}
@@ -195,18 +195,21 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      *                                  la taille du multiensemble
      */
     public Set<SortedBag<E>> subsetsOfSize(int size) {
-        int SZ = size();
         Preconditions.checkArgument(0 <= size && size <= size());
-        if (size == 0)
-            return Set.of(SortedBag.of());
+
+        // Chaque sous-ensemble n'est énuméré qu'une seule fois, à partir du vecteur des multiplicités.
+        var distinctElements = new ArrayList<E>(elements.keySet());
+        var counts = new int[distinctElements.size()];
+        for (var i = 0; i < counts.length; i++)
+            counts[i] = elements.get(distinctElements.get(i));
 
         var result = new HashSet<SortedBag<E>>();
-        for (var e1 : elements.keySet()) {
-            var s1 = SortedBag.of(e1);
-            this.difference(s1)
-                    .subsetsOfSize(size - 1)
-                    .forEach(e -> result.add(s1.union(e)));
-        }
+        MultisetCombinations.forEach(counts, size, chosen -> {
+            var subset = new TreeMap<E, Integer>();
+            for (var i = 0; i < chosen.length; i++)
+                if (chosen[i] > 0) subset.put(distinctElements.get(i), chosen[i]);
+            result.add(new SortedBag<>(subset));
+        });
         return result;
     }
 
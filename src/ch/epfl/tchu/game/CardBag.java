@@ -0,0 +1,294 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * <b>Class representing an immutable multiset of cards</b>
+ * <p>Same operations as a <i>SortedBag</i> of Card, but the multiplicities are stored in an array
+ * indexed by the card's ordinal, with a cached total, so union, difference and containment
+ * run in a time independent of the number of cards and without boxing.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class CardBag implements Iterable<Card> {
+    private static final CardBag EMPTY = new CardBag(new int[Card.COUNT], 0);
+
+    //Invariant: all counts are positive or null and size is their sum
+    private final int[] counts;
+    private final int size;
+
+    /**
+     * Private constructor of a CardBag
+     * the array is not copied and must never be modified afterwards
+     *
+     * @param counts multiplicity of each card, indexed by ordinal
+     * @param size   sum of the multiplicities
+     */
+    private CardBag(int[] counts, int size) {
+        this.counts = counts;
+        this.size = size;
+    }
+
+    /**
+     * @return an empty CardBag
+     */
+    public static CardBag of() {
+        return EMPTY;
+    }
+
+    /**
+     * @param card the unique card of the bag
+     * @return a CardBag containing only <i>card</i>
+     */
+    public static CardBag of(Card card) {
+        return of(1, card);
+    }
+
+    /**
+     * @param n    multiplicity of the card (>= 0)
+     * @param card the card
+     * @return a CardBag containing <i>n</i> times <i>card</i>
+     * @throws IllegalArgumentException if <i>n</i> is negative
+     */
+    public static CardBag of(int n, Card card) {
+        return of(n, card, 0, card);
+    }
+
+    /**
+     * @param n1    multiplicity of the first card (>= 0)
+     * @param card1 the first card
+     * @param n2    multiplicity of the second card (>= 0)
+     * @param card2 the second card
+     * @return a CardBag containing <i>n1</i> times <i>card1</i> and <i>n2</i> times <i>card2</i>
+     * @throws IllegalArgumentException if <i>n1</i> or <i>n2</i> is negative
+     */
+    public static CardBag of(int n1, Card card1, int n2, Card card2) {
+        Preconditions.checkArgument(n1 >= 0 && n2 >= 0);
+        if (n1 + n2 == 0) return EMPTY;
+        int[] counts = new int[Card.COUNT];
+        counts[card1.ordinal()] += n1;
+        counts[card2.ordinal()] += n2;
+        return new CardBag(counts, n1 + n2);
+    }
+
+    /**
+     * @param cards the cards of the bag
+     * @return a CardBag containing exactly the cards of <i>cards</i>
+     */
+    public static CardBag of(SortedBag<Card> cards) {
+        if (cards.isEmpty()) return EMPTY;
+        int[] counts = new int[Card.COUNT];
+        int size = 0;
+        for (Map.Entry<Card, Integer> e : cards.toMap().entrySet()) {
+            counts[e.getKey().ordinal()] = e.getValue();
+            size += e.getValue();
+        }
+        return new CardBag(counts, size);
+    }
+
+    /**
+     * @param cards the cards of the bag
+     * @return a CardBag containing exactly the cards of <i>cards</i>
+     */
+    public static CardBag of(Iterable<Card> cards) {
+        int[] counts = new int[Card.COUNT];
+        int size = 0;
+        for (Card card : cards) {
+            counts[card.ordinal()]++;
+            size++;
+        }
+        return size == 0 ? EMPTY : new CardBag(counts, size);
+    }
+
+    /**
+     * @param counts multiplicity of each card, indexed by the card's ordinal
+     * @return a CardBag containing each card with the given multiplicity
+     * @throws IllegalArgumentException if <i>counts</i> does not contain one multiplicity per card
+     *                                  or if one of them is negative
+     */
+    public static CardBag ofCounts(int[] counts) {
+        Preconditions.checkArgument(counts.length == Card.COUNT);
+        int size = 0;
+        for (int count : counts) {
+            Preconditions.checkArgument(count >= 0);
+            size += count;
+        }
+        return size == 0 ? EMPTY : new CardBag(counts.clone(), size);
+    }
+
+    /**
+     * @return if the bag is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of cards in the bag
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param card the card you want the multiplicity of
+     * @return the multiplicity of <i>card</i>, 0 if it is not in the bag
+     */
+    public int countOf(Card card) {
+        return counts[card.ordinal()];
+    }
+
+    /**
+     * @param card the card you want to know if it is in the bag
+     * @return if <i>card</i> is in the bag (at least once)
+     */
+    public boolean contains(Card card) {
+        return counts[card.ordinal()] > 0;
+    }
+
+    /**
+     * @param that a CardBag
+     * @return if <i>that</i> is a subset of this bag
+     */
+    public boolean contains(CardBag that) {
+        if (that.size > size) return false;
+        for (int i = 0; i < Card.COUNT; i++) {
+            if (that.counts[i] > counts[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param index the index of the card in the bag
+     * @return the card at index <i>index</i>, the cards being sorted by ordinal
+     * @throws IndexOutOfBoundsException if <i>index</i> is not between 0 (included) and the size (excluded)
+     */
+    public Card get(int index) {
+        Objects.checkIndex(index, size);
+        int i = 0;
+        while (index >= counts[i]) {
+            index -= counts[i];
+            i++;
+        }
+        return Card.ALL.get(i);
+    }
+
+    /**
+     * @param that the bag to add
+     * @return the union of this bag and <i>that</i>
+     */
+    public CardBag union(CardBag that) {
+        if (that.isEmpty()) return this;
+        if (isEmpty()) return that;
+        int[] newCounts = new int[Card.COUNT];
+        for (int i = 0; i < Card.COUNT; i++) {
+            newCounts[i] = counts[i] + that.counts[i];
+        }
+        return new CardBag(newCounts, size + that.size);
+    }
+
+    /**
+     * @param that the bag to remove
+     * @return the difference between this bag and <i>that</i>
+     */
+    public CardBag difference(CardBag that) {
+        if (that.isEmpty() || isEmpty()) return this;
+        int[] newCounts = new int[Card.COUNT];
+        int newSize = 0;
+        for (int i = 0; i < Card.COUNT; i++) {
+            newCounts[i] = Math.max(counts[i] - that.counts[i], 0);
+            newSize += newCounts[i];
+        }
+        return newSize == 0 ? EMPTY : new CardBag(newCounts, newSize);
+    }
+
+    /**
+     * @return the SortedBag containing the same cards as this bag
+     */
+    public SortedBag<Card> toSortedBag() {
+        SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+        for (int i = 0; i < Card.COUNT; i++) {
+            builder.add(counts[i], Card.ALL.get(i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return a list of the cards of the bag, sorted by ordinal
+     */
+    public List<Card> toList() {
+        List<Card> list = new ArrayList<>(size);
+        for (int i = 0; i < Card.COUNT; i++) {
+            list.addAll(Collections.nCopies(counts[i], Card.ALL.get(i)));
+        }
+        return list;
+    }
+
+    /**
+     * @return a stream of the cards of the bag, sorted by ordinal
+     */
+    public Stream<Card> stream() {
+        return toList().stream();
+    }
+
+    /**
+     * @return an iterator on the cards of the bag, sorted by ordinal
+     */
+    @Override
+    public Iterator<Card> iterator() {
+        return toList().iterator();
+    }
+
+    /**
+     * @return the set of the different cards of the bag
+     */
+    public Set<Card> toSet() {
+        Set<Card> set = EnumSet.noneOf(Card.class);
+        for (int i = 0; i < Card.COUNT; i++) {
+            if (counts[i] > 0) set.add(Card.ALL.get(i));
+        }
+        return set;
+    }
+
+    /**
+     * Redefinition of hashCode for a CardBag
+     *
+     * @return the hash code of the bag
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+
+    /**
+     * Redefinition of equals for a CardBag (structural comparison)
+     *
+     * @param that the object to compare with
+     * @return if <i>that</i> is a CardBag containing the same cards
+     */
+    @Override
+    public boolean equals(Object that) {
+        return (that instanceof CardBag)
+                && size == ((CardBag) that).size
+                && Arrays.equals(counts, ((CardBag) that).counts);
+    }
+
+    /**
+     * Redefinition of toString for a CardBag
+     *
+     * @return the textual representation of the bag, in the same format as a SortedBag
+     */
+    @Override
+    public String toString() {
+        StringJoiner j = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < Card.COUNT; i++) {
+            if (counts[i] > 0) j.add((counts[i] > 1 ? counts[i] + "×" : "") + Card.ALL.get(i));
+        }
+        return j.toString();
+    }
+}
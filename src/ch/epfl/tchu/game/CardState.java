@@ -2,12 +2,13 @@ package ch.epfl.tchu.game;
 
 import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
-import javafx.stage.Stage;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Class representing card's in common between players
@@ -19,7 +20,8 @@ import java.util.Random;
 public final class CardState extends PublicCardState {
     //Attributes
     private final Deck<Card> deck;
-    private final SortedBag<Card> discardDeck;
+    //discarded cards packed in a long (see PackedCards)
+    private final long discardDeck;
 
     //Private Constructor
 
@@ -28,10 +30,10 @@ public final class CardState extends PublicCardState {
      *
      * @param faceUpCards List of Cards visible for the different players
      * @param deck        The deck of cards,not visible from players
-     * @param discardDeck SortedBag of discarded cards
+     * @param discardDeck discarded cards, packed
      */
-    private CardState(List<Card> faceUpCards, Deck<Card> deck, SortedBag<Card> discardDeck) {
-        super(faceUpCards, deck.size(), discardDeck.size());
+    private CardState(List<Card> faceUpCards, Deck<Card> deck, long discardDeck) {
+        super(faceUpCards, deck.size(), PackedCards.size(discardDeck));
         this.deck = deck;
         this.discardDeck = discardDeck;
     }
@@ -49,7 +51,33 @@ public final class CardState extends PublicCardState {
     public static CardState of(Deck<Card> deck) {
         Preconditions.checkArgument(deck.size() >= Constants.FACE_UP_CARDS_COUNT);
         SortedBag<Card> fUCards = deck.topCards(Constants.FACE_UP_CARDS_COUNT);
-        return new CardState(fUCards.toList(), deck.withoutTopCards(Constants.FACE_UP_CARDS_COUNT), SortedBag.of());
+        return new CardState(fUCards.toList(), deck.withoutTopCards(Constants.FACE_UP_CARDS_COUNT), PackedCards.EMPTY);
+    }
+
+    /**
+     * Construction method giving every part of the state, used to convert a MutableGameState
+     *
+     * @param faceUpCards List of Cards visible for the different players
+     * @param deck        The deck of cards
+     * @param discards    discarded cards
+     * @return the state made of the given cards
+     */
+    static CardState of(List<Card> faceUpCards, Deck<Card> deck, SortedBag<Card> discards) {
+        return new CardState(faceUpCards, deck, PackedCards.of(discards));
+    }
+
+    /**
+     * @return the deck of cards
+     */
+    Deck<Card> deck() {
+        return deck;
+    }
+
+    /**
+     * @return the discarded cards
+     */
+    SortedBag<Card> discards() {
+        return PackedCards.toSortedBag(discardDeck);
     }
 
     /**
@@ -90,8 +118,26 @@ public final class CardState extends PublicCardState {
      * @throws IllegalArgumentException if deck is not empty
      */
     public CardState withDeckRecreatedFromDiscards(Random rng) {
+        return withDeckRecreatedFromDiscards(rng::nextInt);
+    }
+
+    /**
+     * @param rng splittable random
+     * @return a new deck from the old discard deck shuffled with the random rng
+     * @throws IllegalArgumentException if deck is not empty
+     */
+    public CardState withDeckRecreatedFromDiscards(SplittableRandom rng) {
+        return withDeckRecreatedFromDiscards(rng::nextInt);
+    }
+
+    /**
+     * @param nextInt function giving a random integer between 0 (included) and its argument (excluded)
+     * @return a new deck from the old discard deck shuffled with <i>nextInt</i>
+     * @throws IllegalArgumentException if deck is not empty
+     */
+    CardState withDeckRecreatedFromDiscards(IntUnaryOperator nextInt) {
         Preconditions.checkArgument(isDeckEmpty());
-        return new CardState(faceUpCards(), Deck.of(discardDeck, rng), SortedBag.of());
+        return new CardState(faceUpCards(), Deck.of(PackedCards.toSortedBag(discardDeck), nextInt), PackedCards.EMPTY);
     }
 
     /**
@@ -99,14 +145,8 @@ public final class CardState extends PublicCardState {
      * @return a set of cards identical to the receiver (this), but with the given cards added to the discard pile.
      */
     public CardState withMoreDiscardedCards(SortedBag<Card> additionalDiscards) {
-        SortedBag<Card> realAdd;
-        if(additionalDiscards.contains(Card.PLANE)){
-            int count=additionalDiscards.countOf(Card.PLANE);
-            realAdd = additionalDiscards.difference(SortedBag.of(count,Card.PLANE));
-        }else{
-            realAdd=additionalDiscards;
-        }
-        return new CardState(faceUpCards(), deck, discardDeck.union(realAdd));
-
+        long realAdd = PackedCards.of(additionalDiscards);
+        realAdd = PackedCards.difference(realAdd, PackedCards.of(PackedCards.countOf(realAdd, Card.PLANE), Card.PLANE));
+        return new CardState(faceUpCards(), deck, PackedCards.union(discardDeck, realAdd));
     }
 }
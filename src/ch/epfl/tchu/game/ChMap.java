@@ -3,7 +3,9 @@ package ch.epfl.tchu.game;
 import ch.epfl.tchu.game.Route.Level;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 public final class ChMap {
 
@@ -26,6 +28,21 @@ public final class ChMap {
         return AEROPORTS;
     }
 
+    /**
+     * @return the graph of the map, the routes being designated by their index
+     */
+    public static RouteGraph graph() {
+        return GRAPH;
+    }
+
+    /**
+     * @return the distances between the stations of the map, with all the routes
+     */
+    public static StationDistances distances() {
+        return DISTANCES;
+    }
+
+
     // Stations - cities
     private static final Station BAD = new Station(0, "Baden");
     private static final Station BAL = new Station(1, "Bâle");
@@ -97,7 +114,7 @@ public final class ChMap {
 
 
     // Routes
-    private static final List<Route> ALL_ROUTES = List.of(
+    private static final List<Route> ALL_ROUTES = indexedRoutes(List.of(
             new Route("AT1_STG_1", AT1, STG, 4, Level.UNDERGROUND, null),
             new Route("AT2_VAD_1", AT2, VAD, 1, Level.UNDERGROUND, Color.RED),
             new Route("BAD_BAL_1", BAD, BAL, 3, Level.UNDERGROUND, Color.RED),
@@ -192,7 +209,7 @@ public final class ChMap {
             new Route("DEL_BRU_PLANE",DEL,BRU,1,Level.SKY,null),
             new Route("GEN_BRU_PLANE",GEN,BRU,1,Level.SKY,null),
             new Route("GEN_STG_PLANE",GEN,STG,1,Level.SKY,null),
-            new Route("BRU_STG_PLANE",BRU,STG,1,Level.SKY,null));
+            new Route("BRU_STG_PLANE",BRU,STG,1,Level.SKY,null)));
 
 
 
@@ -203,7 +220,7 @@ public final class ChMap {
     private static final Ticket itToNeighbors = ticketToNeighbors(IT, 13, 6, 0, 11);
     private static final Ticket frToNeighbors = ticketToNeighbors(FR, 5, 14, 11, 0);
 
-    private static final List<Ticket> ALL_TICKETS = List.of(
+    private static final List<Ticket> ALL_TICKETS = indexedTickets(List.of(
             // City-to-city tickets
             new Ticket(BAL, BER, 5),
             new Ticket(BAL, BRI, 10),
@@ -250,7 +267,7 @@ public final class ChMap {
             deToNeighbors, deToNeighbors,
             atToNeighbors, atToNeighbors,
             itToNeighbors, itToNeighbors,
-            frToNeighbors, frToNeighbors);
+            frToNeighbors, frToNeighbors));
 
     private static Ticket ticketToNeighbors(List<Station> from, int de, int at, int it, int fr) {
         var trips = new ArrayList<Trip>();
@@ -267,5 +284,27 @@ public final class ChMap {
 
     public final static int TRAIN_ROUTE_LAST_INDEX = 88;
 
+    private static final RouteGraph GRAPH = RouteGraph.of(ALL_STATIONS, ALL_ROUTES, AEROPORTS);
+
+    private static final StationDistances DISTANCES = StationDistances.of(GRAPH);
+
+    //Each route gets its position in the list as index
+    private static List<Route> indexedRoutes(List<Route> routes) {
+        List<Route> indexed = new ArrayList<>(routes.size());
+        for (int i = 0; i < routes.size(); i++) indexed.add(routes.get(i).withIndex(i));
+        return List.copyOf(indexed);
+    }
+
+    //Each ticket gets the position of its first occurrence as index, so that duplicated tickets stay identical
+    private static List<Ticket> indexedTickets(List<Ticket> tickets) {
+        Map<Ticket, Ticket> copies = new IdentityHashMap<>();
+        List<Ticket> indexed = new ArrayList<>(tickets.size());
+        for (int i = 0; i < tickets.size(); i++) {
+            int index = i;
+            indexed.add(copies.computeIfAbsent(tickets.get(i), t -> t.withIndex(index)));
+        }
+        return List.copyOf(indexed);
+    }
+
 
 }
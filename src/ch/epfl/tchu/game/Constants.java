@@ -87,6 +87,11 @@ public final class Constants {
      */
     public static final int ADDITIONAL_TUNNEL_CARDS = 3;
 
+    /**
+     * Nombre maximum de cartes additionnelles à jouer lors de la construction d'une route aérienne.
+     */
+    public static final int MAX_ADDITIONAL_SKY_CARDS = 3;
+
     /**
      * Nombre de points obtenus pour la construction de routes de longueur 1 à 6.
      * (L'élément à l'index i correspond à une longueur de route i. Une valeur
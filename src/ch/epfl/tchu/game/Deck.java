@@ -3,9 +3,12 @@ package ch.epfl.tchu.game;
 import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Class representing a shuffled deck of card
@@ -15,17 +18,22 @@ import java.util.Random;
  */
 public final class Deck<C extends Comparable<C>> {
     //Attributes
-    private final List<C> cards;
+    //shuffled cards shared by all the decks obtained from the same shuffle, never modified
+    private final Object[] cards;
+    //index in cards of the top card of this deck
+    private final int top;
 
     //Private constructor
 
     /**
      * Private constructor of a Deck
      *
-     * @param cards
+     * @param cards the shuffled cards (not copied)
+     * @param top   index of the top card in <i>cards</i>
      */
-    private Deck(List<C> cards) {
+    private Deck(Object[] cards, int top) {
         this.cards = cards;
+        this.top = top;
     }
 
     //public and static construction method
@@ -37,9 +45,41 @@ public final class Deck<C extends Comparable<C>> {
      * @return a deck with a sorted bag of cards and a random
      */
     public static <C extends Comparable<C>> Deck<C> of(SortedBag<C> cards, Random rng) {
-        List<C> cardList = cards.toList();
-        Collections.shuffle(cardList, rng);
-        return new Deck(cardList);
+        return of(cards, rng::nextInt);
+    }
+
+    /**
+     * @param cards The cards you want to shuffle
+     * @param rng   A splittable random to shuffle
+     * @param <C>   Type of object you want to make a deck of
+     * @return a deck with a sorted bag of cards and a random
+     */
+    public static <C extends Comparable<C>> Deck<C> of(SortedBag<C> cards, SplittableRandom rng) {
+        return of(cards, rng::nextInt);
+    }
+
+    /**
+     * Shuffle the cards with the Fisher–Yates algorithm, in the array that will back the deck
+     * <p>Shared by all the methods shuffling cards, whatever their source of randomness.</p>
+     *
+     * @param cards   The cards you want to shuffle
+     * @param nextInt function giving a random integer between 0 (included) and its argument (excluded)
+     * @param <C>     Type of object you want to make a deck of
+     * @return a deck with the shuffled cards
+     */
+    static <C extends Comparable<C>> Deck<C> of(SortedBag<C> cards, IntUnaryOperator nextInt) {
+        Object[] shuffled = new Object[cards.size()];
+        int i = 0;
+        for (Map.Entry<C, Integer> e : cards.toMap().entrySet()) {
+            for (int n = 0; n < e.getValue(); n++) shuffled[i++] = e.getKey();
+        }
+        for (i = shuffled.length; i > 1; i--) {
+            int j = nextInt.applyAsInt(i);
+            Object swap = shuffled[i - 1];
+            shuffled[i - 1] = shuffled[j];
+            shuffled[j] = swap;
+        }
+        return new Deck<>(shuffled, 0);
     }
 
     /**
@@ -48,7 +88,7 @@ public final class Deck<C extends Comparable<C>> {
      * @return if the deck is empty or not
      */
     public boolean isEmpty() {
-        return cards.isEmpty();
+        return top == cards.length;
     }
 
     /**
@@ -57,7 +97,7 @@ public final class Deck<C extends Comparable<C>> {
      * @return The size of deck
      */
     public int size() {
-        return cards.size();
+        return cards.length - top;
     }
 
 
@@ -68,8 +108,8 @@ public final class Deck<C extends Comparable<C>> {
      * @throws IllegalArgumentException if deck is empty
      */
     public C topCard() {
-        Preconditions.checkArgument(!cards.isEmpty());
-        return cards.get(0);
+        Preconditions.checkArgument(!isEmpty());
+        return card(top);
     }
 
     /**
@@ -79,7 +119,7 @@ public final class Deck<C extends Comparable<C>> {
      * @throws IllegalArgumentException if the deck is empty
      */
     public Deck<C> withoutTopCard() {
-        Preconditions.checkArgument(!cards.isEmpty());
+        Preconditions.checkArgument(!isEmpty());
         return withoutTopCards(1);
     }
 
@@ -92,7 +132,9 @@ public final class Deck<C extends Comparable<C>> {
      */
     public SortedBag<C> topCards(int count) {
         Preconditions.checkArgument(count >= 0 && count <= size());
-        return SortedBag.of(cards.subList(0, count));
+        SortedBag.Builder<C> builder = new SortedBag.Builder<>();
+        for (int i = top; i < top + count; i++) builder.add(card(i));
+        return builder.build();
     }
 
     /**
@@ -104,7 +146,33 @@ public final class Deck<C extends Comparable<C>> {
      */
     public Deck<C> withoutTopCards(int count) {
         Preconditions.checkArgument(count >= 0 && count <= size());
-        return new Deck(cards.subList(count, cards.size()));
+        return count == 0 ? this : new Deck<>(cards, top + count);
+    }
+
+    /**
+     * @param cards the cards of the deck, from the top to the bottom
+     * @param <C>   Type of object you want to make a deck of
+     * @return a deck with the cards in the given order, without shuffling them
+     */
+    static <C extends Comparable<C>> Deck<C> ofOrdered(List<C> cards) {
+        return new Deck<>(cards.toArray(), 0);
+    }
 
+    /**
+     * @return the cards of the deck, from the top to the bottom
+     */
+    List<C> cards() {
+        List<C> list = new ArrayList<>(size());
+        for (int i = top; i < cards.length; i++) list.add(card(i));
+        return list;
+    }
+
+    /**
+     * @param index index in the shared array
+     * @return the card at <i>index</i>
+     */
+    @SuppressWarnings("unchecked")
+    private C card(int index) {
+        return (C) cards[index];
     }
 }
@@ -0,0 +1,581 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.gui.Info;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <b>Class representing the course of a game as a state machine</b>
+ * <p>The engine never waits for a player: each call to <i>step</i> applies the decision answering the
+ * pending request, plays the game until a player has to decide something, and returns the new request.
+ * The game can therefore be driven by any thread, when the answer of the player is available.</p>
+ * <p>The informations and the new states are sent directly to the players, through their PlayerInformer:
+ * the decisions are asked through the requests, so the engine needs nothing else from the players.
+ * An engine must only be used by one thread at a time.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class GameEngine {
+    private final Map<PlayerId, PlayerInformer> players;
+    private final Map<PlayerId, String> playerNames;
+    private final Map<PlayerId, Info> infos;
+    private final GameRandom random;
+
+    private GameState gameState;
+    private Request pending;
+    private final Map<PlayerId, SortedBag<Ticket>> initialTickets = new EnumMap<>(PlayerId.class);
+    //points of the players, longest trail bonus included, known once the game is finished
+    private Map<PlayerId, Integer> finalPoints;
+
+    //state of the current turn
+    private int drawnCards;
+    private Route route;
+    private SortedBag<Card> initialCards;
+
+    /**
+     * <b>Kinds of the decisions a player can be asked for, one for each method of Player returning a value</b>
+     */
+    public enum Kind {
+        CHOOSE_INITIAL_TICKETS, NEXT_TURN, CHOOSE_TICKETS, DRAW_SLOT, CLAIMED_ROUTE, INITIAL_CLAIM_CARDS,
+        CHOOSE_ADDITIONAL_CARDS;
+
+        public static final List<Kind> ALL = List.of(Kind.values());
+    }
+
+    /**
+     * <b>Class representing a decision a player has to take</b>
+     */
+    public static final class Request {
+        private final Kind kind;
+        private final PlayerId playerId;
+        private final SortedBag<Ticket> ticketOptions;
+        private final List<SortedBag<Card>> cardOptions;
+
+        private Request(Kind kind, PlayerId playerId, SortedBag<Ticket> ticketOptions, List<SortedBag<Card>> cardOptions) {
+            this.kind = kind;
+            this.playerId = playerId;
+            this.ticketOptions = ticketOptions;
+            this.cardOptions = cardOptions;
+        }
+
+        /**
+         * @return the kind of decision
+         */
+        public Kind kind() {
+            return kind;
+        }
+
+        /**
+         * @return the player who has to decide
+         */
+        public PlayerId playerId() {
+            return playerId;
+        }
+
+        /**
+         * @return the tickets to choose from, for CHOOSE_INITIAL_TICKETS and CHOOSE_TICKETS, null otherwise
+         */
+        public SortedBag<Ticket> ticketOptions() {
+            return ticketOptions;
+        }
+
+        /**
+         * @return the additional cards to choose from, for CHOOSE_ADDITIONAL_CARDS, null otherwise
+         */
+        public List<SortedBag<Card>> cardOptions() {
+            return cardOptions;
+        }
+
+        /**
+         * <b>Ask the decision to a player, waiting for his answer</b>
+         *
+         * @param player the player who has to decide
+         * @return the decision of <i>player</i>
+         */
+        public Decision ask(Player player) {
+            switch (kind) {
+                case CHOOSE_INITIAL_TICKETS:
+                    return Decision.ofTickets(player.chooseInitialTickets());
+                case NEXT_TURN:
+                    return Decision.ofTurnKind(player.nextTurn());
+                case CHOOSE_TICKETS:
+                    return Decision.ofTickets(player.chooseTickets(ticketOptions));
+                case DRAW_SLOT:
+                    return Decision.ofSlot(player.drawSlot());
+                case CLAIMED_ROUTE:
+                    return Decision.ofRoute(player.claimedRoute());
+                case INITIAL_CLAIM_CARDS:
+                    return Decision.ofCards(player.initialClaimCards());
+                case CHOOSE_ADDITIONAL_CARDS:
+                    return Decision.ofCards(player.chooseAdditionalCards(cardOptions));
+                default:
+                    throw new Error();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + playerId;
+        }
+    }
+
+    /**
+     * <b>Class representing the answer of a player to a request</b>
+     */
+    public static final class Decision {
+        //kinds of the requests the decision can answer
+        private final Set<Kind> kinds;
+        private final SortedBag<Ticket> tickets;
+        private final Player.TurnKind turnKind;
+        private final int slot;
+        private final Route route;
+        private final SortedBag<Card> cards;
+
+        private Decision(Set<Kind> kinds, SortedBag<Ticket> tickets, Player.TurnKind turnKind, int slot, Route route, SortedBag<Card> cards) {
+            this.kinds = kinds;
+            this.tickets = tickets;
+            this.turnKind = turnKind;
+            this.slot = slot;
+            this.route = route;
+            this.cards = cards;
+        }
+
+        /**
+         * @param tickets the chosen tickets
+         * @return the answer to CHOOSE_INITIAL_TICKETS or CHOOSE_TICKETS
+         */
+        public static Decision ofTickets(SortedBag<Ticket> tickets) {
+            return new Decision(EnumSet.of(Kind.CHOOSE_INITIAL_TICKETS, Kind.CHOOSE_TICKETS), tickets, null, 0, null, null);
+        }
+
+        /**
+         * @param turnKind the chosen action
+         * @return the answer to NEXT_TURN
+         */
+        public static Decision ofTurnKind(Player.TurnKind turnKind) {
+            return new Decision(EnumSet.of(Kind.NEXT_TURN), null, turnKind, 0, null, null);
+        }
+
+        /**
+         * @param slot the slot of the face up card, or Constants.DECK_SLOT
+         * @return the answer to DRAW_SLOT
+         */
+        public static Decision ofSlot(int slot) {
+            return new Decision(EnumSet.of(Kind.DRAW_SLOT), null, null, slot, null, null);
+        }
+
+        /**
+         * @param route the route the player wants to claim
+         * @return the answer to CLAIMED_ROUTE
+         */
+        public static Decision ofRoute(Route route) {
+            return new Decision(EnumSet.of(Kind.CLAIMED_ROUTE), null, null, 0, route, null);
+        }
+
+        /**
+         * @param cards the chosen cards
+         * @return the answer to INITIAL_CLAIM_CARDS or CHOOSE_ADDITIONAL_CARDS
+         */
+        public static Decision ofCards(SortedBag<Card> cards) {
+            return new Decision(EnumSet.of(Kind.INITIAL_CLAIM_CARDS, Kind.CHOOSE_ADDITIONAL_CARDS), null, null, 0, null, cards);
+        }
+
+        /**
+         * @return the chosen tickets, null if the decision is not about tickets
+         */
+        public SortedBag<Ticket> tickets() {
+            return tickets;
+        }
+
+        /**
+         * @return the chosen action, null if the decision is not about the next turn
+         */
+        public Player.TurnKind turnKind() {
+            return turnKind;
+        }
+
+        /**
+         * @return the chosen slot, 0 if the decision is not about a slot
+         */
+        public int slot() {
+            return slot;
+        }
+
+        /**
+         * @return the chosen route, null if the decision is not about a route
+         */
+        public Route route() {
+            return route;
+        }
+
+        /**
+         * @return the chosen cards, null if the decision is not about cards
+         */
+        public SortedBag<Card> cards() {
+            return cards;
+        }
+    }
+
+    /**
+     * Private constructor of a GameEngine
+     *
+     * @param players     Map with the players linked to their Id's, only informed by the engine
+     * @param playerNames Map with the player's Id linked to their name
+     * @param gameState   the initial state of the game
+     * @param random      the sources of randomness of the game
+     */
+    private GameEngine(Map<PlayerId, PlayerInformer> players, Map<PlayerId, String> playerNames, GameState gameState, GameRandom random) {
+        this.players = players;
+        this.playerNames = playerNames;
+        this.gameState = gameState;
+        this.random = random;
+        Map<PlayerId, Info> infos = new EnumMap<>(PlayerId.class);
+        for (PlayerId id : PlayerId.ALL) infos.put(id, new Info(playerNames.get(id)));
+        this.infos = infos;
+    }
+
+    /**
+     * <b>Start a game</b>
+     * <p>The players are initialised and given their initial tickets, then the first player is asked
+     * which ones he keeps.</p>
+     *
+     * @param players     Map with the players linked to their Id's, only informed by the engine
+     * @param playerNames Map with the player's Id linked to their name
+     * @param tickets     a SortedBag of all the tickets used in the game
+     * @param random      the sources of randomness of the game, a game being replayed exactly from its seed
+     * @return the engine of the game, whose pending request is the choice of the initial tickets of the first player
+     */
+    public static GameEngine start(Map<PlayerId, ? extends PlayerInformer> players, Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets, GameRandom random) {
+        Preconditions.checkArgument(players.size() == PlayerId.COUNT && playerNames.size() == PlayerId.COUNT);
+        //copied in maps ordered by identity, so that the players are always informed in the same order
+        GameEngine engine = new GameEngine(new EnumMap<PlayerId, PlayerInformer>(players), new EnumMap<>(playerNames), GameState.initial(tickets, random), random);
+        engine.begin();
+        return engine;
+    }
+
+    /**
+     * @return the decision the game is waiting for, null if the game is finished
+     */
+    public Request pendingRequest() {
+        return pending;
+    }
+
+    /**
+     * @return if the game is finished
+     */
+    public boolean isFinished() {
+        return pending == null;
+    }
+
+    /**
+     * @return the current state of the game
+     */
+    public GameState gameState() {
+        return gameState;
+    }
+
+    /**
+     * @return the final points of the players, the longest trail bonus included
+     * @throws IllegalStateException if the game is not finished
+     */
+    public Map<PlayerId, Integer> finalPoints() {
+        if (!isFinished()) throw new IllegalStateException();
+        return finalPoints;
+    }
+
+    /**
+     * <b>Play the game until the next decision</b>
+     *
+     * @param decision the answer to the pending request
+     * @return the new pending request, null if the game is finished
+     * @throws IllegalStateException    if the game is finished
+     * @throws IllegalArgumentException if <i>decision</i> does not answer the pending request, or if it is not
+     *                                  allowed by the rules, the engine being left unchanged
+     */
+    public Request step(Decision decision) {
+        if (pending == null) throw new IllegalStateException();
+        checkDecision(decision);
+        PlayerId playerId = pending.playerId();
+        switch (pending.kind()) {
+            case CHOOSE_INITIAL_TICKETS:
+                gameState = gameState.withInitiallyChosenTickets(playerId, decision.tickets());
+                if (playerId.ordinal() < PlayerId.COUNT - 1) {
+                    PlayerId next = playerId.next();
+                    pending = new Request(Kind.CHOOSE_INITIAL_TICKETS, next, initialTickets.get(next), null);
+                } else {
+                    for (PlayerId id : PlayerId.ALL) info(infos.get(id).keptTickets(gameState.playerState(id).tickets().size()));
+                    updateState();
+                    beginTurn();
+                }
+                break;
+            case NEXT_TURN:
+                nextTurn(decision.turnKind());
+                break;
+            case CHOOSE_TICKETS:
+                info(currentInfo().drewTickets(Constants.IN_GAME_TICKETS_COUNT));
+                info(currentInfo().keptTickets(decision.tickets().size()));
+                gameState = gameState.withChosenAdditionalTickets(pending.ticketOptions(), decision.tickets());
+                endTurn();
+                break;
+            case DRAW_SLOT:
+                drawCard(decision.slot());
+                break;
+            case CLAIMED_ROUTE:
+                route = decision.route();
+                pending = new Request(Kind.INITIAL_CLAIM_CARDS, playerId, null, null);
+                break;
+            case INITIAL_CLAIM_CARDS:
+                initialCards = decision.cards();
+                claimRoute();
+                break;
+            case CHOOSE_ADDITIONAL_CARDS:
+                if (!decision.cards().isEmpty()) {
+                    gameState = gameState.withClaimedRoute(route, initialCards.union(decision.cards()));
+                    info(currentInfo().claimedRoute(route, initialCards.union(decision.cards())));
+                } else {
+                    info(currentInfo().didNotClaimRoute(route));
+                }
+                endTurn();
+                break;
+        }
+        return pending;
+    }
+
+    /**
+     * <b>Check that a decision answers the pending request and is allowed by the rules</b>
+     * <p>The decisions may come from remote clients, so nothing they contain is trusted.</p>
+     *
+     * @param decision the answer to the pending request
+     * @throws IllegalArgumentException if the decision does not answer the pending request or is not allowed
+     */
+    private void checkDecision(Decision decision) {
+        Preconditions.checkArgument(decision.kinds.contains(pending.kind()));
+        PlayerState playerState = gameState.playerState(pending.playerId());
+        switch (pending.kind()) {
+            case CHOOSE_INITIAL_TICKETS:
+            case CHOOSE_TICKETS:
+                SortedBag<Ticket> options = pending.ticketOptions();
+                Preconditions.checkArgument(decision.tickets() != null && options.contains(decision.tickets())
+                        && decision.tickets().size() >= options.size() - Constants.DISCARDABLE_TICKETS_COUNT);
+                break;
+            case NEXT_TURN:
+                Preconditions.checkArgument(decision.turnKind() != null);
+                switch (decision.turnKind()) {
+                    case DRAW_TICKETS:
+                        Preconditions.checkArgument(gameState.canDrawTickets());
+                        break;
+                    case DRAW_CARDS:
+                        Preconditions.checkArgument(gameState.canDrawCards());
+                        break;
+                    case CLAIM_ROUTE:
+                        Preconditions.checkArgument(!playerState.claimableRoutes(gameState).isEmpty());
+                        break;
+                    default:
+                        throw new Error();
+                }
+                break;
+            case DRAW_SLOT:
+                Preconditions.checkArgument(decision.slot() == Constants.DECK_SLOT
+                        || Constants.FACE_UP_CARD_SLOTS.contains(decision.slot()));
+                break;
+            case CLAIMED_ROUTE:
+                //a route which is not on the map has a negative index
+                Preconditions.checkArgument(decision.route() != null && decision.route().index() >= 0
+                        && playerState.claimableRoutes(gameState).get(decision.route().index()));
+                break;
+            case INITIAL_CLAIM_CARDS:
+                //the options of a sky route do not depend on the cards of the player
+                Preconditions.checkArgument(decision.cards() != null
+                        && playerState.possibleClaimCards(route).contains(decision.cards())
+                        && PackedCards.contains(playerState.packedCards(), PackedCards.of(decision.cards())));
+                break;
+            case CHOOSE_ADDITIONAL_CARDS:
+                Preconditions.checkArgument(decision.cards() != null
+                        && (decision.cards().isEmpty() || pending.cardOptions().contains(decision.cards())));
+                break;
+            default:
+                throw new Error();
+        }
+    }
+
+    //initiate the players and give them their initial tickets
+    private void begin() {
+        players.forEach((id, player) -> player.initPlayers(id, playerNames));
+        updateState();
+        info(infos.get(gameState.currentPlayerId()).willPlayFirst());
+
+        for (PlayerId id : PlayerId.ALL) {
+            SortedBag<Ticket> tickets = gameState.topTickets(Constants.INITIAL_TICKETS_COUNT);
+            initialTickets.put(id, tickets);
+            players.get(id).setInitialTicketChoice(tickets);
+            gameState = gameState.withoutTopTickets(Constants.INITIAL_TICKETS_COUNT);
+            updateState();
+        }
+        pending = new Request(Kind.CHOOSE_INITIAL_TICKETS, PlayerId.ALL.get(0), initialTickets.get(PlayerId.ALL.get(0)), null);
+    }
+
+    private void beginTurn() {
+        info(currentInfo().canPlay());
+        updateState();
+        pending = new Request(Kind.NEXT_TURN, gameState.currentPlayerId(), null, null);
+    }
+
+    private void nextTurn(Player.TurnKind turnKind) {
+        PlayerId playerId = gameState.currentPlayerId();
+        switch (turnKind) {
+            case DRAW_TICKETS:
+                pending = new Request(Kind.CHOOSE_TICKETS, playerId, gameState.topTickets(Constants.IN_GAME_TICKETS_COUNT), null);
+                break;
+            case DRAW_CARDS:
+                drawnCards = 0;
+                //checking if we need to transform the discard deck to the deck
+                gameState = gameState.withCardsDeckRecreatedIfNeeded(random.cards());
+                pending = new Request(Kind.DRAW_SLOT, playerId, null, null);
+                break;
+            case CLAIM_ROUTE:
+                pending = new Request(Kind.CLAIMED_ROUTE, playerId, null, null);
+                break;
+        }
+    }
+
+    private void drawCard(int slot) {
+        if (slot == Constants.DECK_SLOT) {
+            gameState = gameState.withBlindlyDrawnCard();
+            info(currentInfo().drewBlindCard());
+        } else {
+            Card card = gameState.cardState().faceUpCard(slot);
+            info(currentInfo().drewVisibleCard(card));
+            gameState = gameState.withDrawnFaceUpCard(slot);
+        }
+
+        drawnCards++;
+        if (drawnCards < 2) {
+            gameState = gameState.withCardsDeckRecreatedIfNeeded(random.cards());
+            updateState();
+            pending = new Request(Kind.DRAW_SLOT, gameState.currentPlayerId(), null, null);
+        } else {
+            endTurn();
+        }
+    }
+
+    //claim the route with the initial cards, or ask for additional cards
+    private void claimRoute() {
+        Info info = currentInfo();
+        int additionalCount;
+        SortedBag<Card> drawnCards;
+
+        if (route.level() == Route.Level.UNDERGROUND) {
+            info(info.attemptsTunnelClaim(route, initialCards));
+
+            //draw cards one at a time, checking that the deck is not empty
+            SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+            for (int i = 0; i < Constants.ADDITIONAL_TUNNEL_CARDS; i++) {
+                if (gameState.cardState().isDeckEmpty()) gameState = gameState.withCardsDeckRecreatedIfNeeded(random.cards());
+                builder.add(gameState.topCard());
+                gameState = gameState.withoutTopCard();
+            }
+            drawnCards = builder.build();
+            gameState = gameState.withMoreDiscardedCards(drawnCards);
+
+            additionalCount = route.additionalClaimCardsCount(initialCards, drawnCards);
+            info(info.drewAdditionalCards(drawnCards, additionalCount));
+        } else if (route.level() == Route.Level.SKY) {
+            info(info.attemptsSkyRouteClaim(route, initialCards));
+            drawnCards = SortedBag.of();
+            additionalCount = route.additionalClaimCardsCount(initialCards, drawnCards, random.sky());
+            if (additionalCount == 0) info(info.noadditionalSkyRoute(route));
+            else info(info.additionalSkyRouteCount(route, additionalCount));
+        } else {
+            drawnCards = SortedBag.of();
+            additionalCount = 0;
+        }
+
+        if (additionalCount == 0) {
+            gameState = gameState.withClaimedRoute(route, initialCards);
+            //the sky routes announce they do not need additional cards instead
+            if (route.level() != Route.Level.SKY) info(info.claimedRoute(route, initialCards));
+            endTurn();
+            return;
+        }
+
+        List<SortedBag<Card>> options = gameState.currentPlayerState().
+                possibleAdditionalCards(additionalCount, initialCards, drawnCards);
+        if (options.isEmpty()) {
+            info(info.didNotClaimRoute(route));
+            endTurn();
+        } else {
+            pending = new Request(Kind.CHOOSE_ADDITIONAL_CARDS, gameState.currentPlayerId(), null, options);
+        }
+    }
+
+    private void endTurn() {
+        PlayerId currentPlayerId = gameState.currentPlayerId();
+
+        //notify when the last turn begins
+        if (gameState.lastTurnBegins()) {
+            info(currentInfo().lastTurnBegins(gameState.playerState(currentPlayerId).carCount()));
+        }
+        boolean end = currentPlayerId.equals(gameState.lastPlayer());
+        gameState = gameState.forNextTurn();
+
+        if (end) endGame();
+        else beginTurn();
+    }
+
+    private void endGame() {
+        pending = null;
+        Map<PlayerId, Trail> longest = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, Integer> points = new EnumMap<>(PlayerId.class);
+        int maxLength = 0;
+        for (PlayerId id : PlayerId.ALL) {
+            PlayerState playerState = gameState.playerState(id);
+            longest.put(id, playerState.longestTrail());
+            points.put(id, playerState.finalPoints());
+            maxLength = Math.max(maxLength, longest.get(id).length());
+        }
+
+        //the bonus is given to all the players with the longest trail
+        for (PlayerId id : PlayerId.ALL) {
+            if (longest.get(id).length() == maxLength) {
+                info(infos.get(id).getsLongestTrailBonus(longest.get(id)));
+                points.put(id, points.get(id) + Constants.LONGEST_TRAIL_BONUS_POINTS);
+            }
+        }
+        finalPoints = Collections.unmodifiableMap(points);
+
+        updateState();
+
+        //announce the winner(s)
+        int point1 = points.get(PlayerId.PLAYER_1);
+        int point2 = points.get(PlayerId.PLAYER_2);
+        if (point1 == point2) {
+            info(Info.draw(List.of(playerNames.get(PlayerId.PLAYER_1), playerNames.get(PlayerId.PLAYER_2)), point1));
+        } else if (point1 > point2) {
+            info(infos.get(PlayerId.PLAYER_1).won(point1, point2));
+        } else {
+            info(infos.get(PlayerId.PLAYER_2).won(point2, point1));
+        }
+    }
+
+    private Info currentInfo() {
+        return infos.get(gameState.currentPlayerId());
+    }
+
+    //sends information to both players
+    private void info(String s) {
+        for (PlayerId id : PlayerId.ALL) players.get(id).receiveInfo(s);
+    }
+
+    //informs all players of a change of state
+    private void updateState() {
+        for (PlayerId id : PlayerId.ALL) players.get(id).updateState(gameState, gameState.playerState(id));
+    }
+}
@@ -0,0 +1,76 @@
+package ch.epfl.tchu.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * <b>Class representing the sources of randomness of a game</b>
+ * <p>All the streams are split from a single seed: each one is independent of the others
+ * and a game played again with the same seed and the same decisions is identical.
+ * An instance must only be used by one game (and one thread) at a time.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class GameRandom {
+    private final long seed;
+    private final SplittableRandom cards, tickets, sky, players;
+
+    /**
+     * Private constructor of a GameRandom
+     *
+     * @param seed the seed of all the streams
+     */
+    private GameRandom(long seed) {
+        SplittableRandom root = new SplittableRandom(seed);
+        this.seed = seed;
+        this.cards = root.split();
+        this.tickets = root.split();
+        this.sky = root.split();
+        this.players = root.split();
+    }
+
+    /**
+     * @param seed the seed of the game
+     * @return a new GameRandom whose streams are all derived from <i>seed</i>
+     */
+    public static GameRandom of(long seed) {
+        return new GameRandom(seed);
+    }
+
+    /**
+     * <b>Getter of the seed</b>
+     *
+     * @return the seed the streams are derived from
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * @return the stream used to shuffle the card deck
+     */
+    public SplittableRandom cards() {
+        return cards;
+    }
+
+    /**
+     * @return the stream used to shuffle the ticket deck
+     */
+    public SplittableRandom tickets() {
+        return tickets;
+    }
+
+    /**
+     * @return the stream used to draw the additional cards of sky routes
+     */
+    public SplittableRandom sky() {
+        return sky;
+    }
+
+    /**
+     * @return the stream used for the choices concerning the players (e.g. who plays first)
+     */
+    public SplittableRandom players() {
+        return players;
+    }
+}
@@ -4,6 +4,7 @@ import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
 import java.util.*;
+import java.util.function.IntUnaryOperator;
 
 /**
  * <b>Class representing the game state unknown by players</b>
@@ -42,7 +43,18 @@ public final class GameState extends PublicGameState {
      * @return a GameState in witch the cards has been distributed to players and ready to begin the game
      */
     public static GameState initial(SortedBag<Ticket> tickets, Random rng) {
-        Deck<Card> deck = Deck.of(Constants.ALL_CARDS, rng);
+        return initial(tickets, GameRandom.of(rng.nextLong()));
+    }
+
+    /**
+     * <b>static method to create a GameState</b>
+     *
+     * @param tickets SortedBag of all the tickets of the game
+     * @param random  the sources of randomness of the game, used to shuffle the different decks
+     * @return a GameState in witch the cards has been distributed to players and ready to begin the game
+     */
+    public static GameState initial(SortedBag<Ticket> tickets, GameRandom random) {
+        Deck<Card> deck = Deck.of(Constants.ALL_CARDS, random.cards());
         Map<PlayerId, PlayerState> map = new EnumMap<>(PlayerId.class);
 
         for (PlayerId id : PlayerId.ALL) {
@@ -51,11 +63,42 @@ public final class GameState extends PublicGameState {
             map.put(id, state);
         }
 
-        int firstPlayer = rng.nextInt(PlayerId.COUNT);
+        int firstPlayer = random.players().nextInt(PlayerId.COUNT);
 
         PlayerId playerBegin =PlayerId.ALL.get(firstPlayer);
 
-        return new GameState(Deck.of(tickets, rng), playerBegin, null, map, CardState.of(deck));
+        return new GameState(Deck.of(tickets, random.tickets()), playerBegin, null, map, CardState.of(deck));
+    }
+
+    /**
+     * Construction method giving every part of the state, used to convert a MutableGameState
+     *
+     * @param tickets         the deck of tickets
+     * @param currentPlayerId the id of the current player
+     * @param lastPlayer      the id of the last player
+     * @param playerStateMap  a map with player id's linked with their PlayerState
+     * @param cardState       the cardState of the game
+     * @return the GameState made of the given parts
+     */
+    static GameState of(Deck<Ticket> tickets, PlayerId currentPlayerId, PlayerId lastPlayer, Map<PlayerId, PlayerState> playerStateMap, CardState cardState) {
+        return new GameState(tickets, currentPlayerId, lastPlayer, playerStateMap, cardState);
+    }
+
+    /**
+     * @return the deck of tickets
+     */
+    Deck<Ticket> ticketDeck() {
+        return tickets;
+    }
+
+    /**
+     * <b>Getter for the state of the current cards</b>
+     *
+     * @return the state of the cards, with the deck and the discards
+     */
+    @Override
+    public CardState cardState() {
+        return cardState;
     }
 
     /**
@@ -132,8 +175,28 @@ public final class GameState extends PublicGameState {
      * @return a GameState in witch the card deck recreated from the discard
      */
     public GameState withCardsDeckRecreatedIfNeeded(Random rng) {
+        return withCardsDeckRecreatedIfNeeded(rng::nextInt);
+    }
+
+    /**
+     * <b>Recreate a card deck if it is empty</b>
+     *
+     * @param rng splittable random to shuffle the deck
+     * @return a GameState in witch the card deck recreated from the discard
+     */
+    public GameState withCardsDeckRecreatedIfNeeded(SplittableRandom rng) {
+        return withCardsDeckRecreatedIfNeeded(rng::nextInt);
+    }
+
+    /**
+     * <b>Recreate a card deck if it is empty</b>
+     *
+     * @param nextInt function giving a random integer between 0 (included) and its argument (excluded)
+     * @return a GameState in witch the card deck recreated from the discard
+     */
+    private GameState withCardsDeckRecreatedIfNeeded(IntUnaryOperator nextInt) {
         if (!cardState.isDeckEmpty()) return this;
-        return new GameState(tickets, currentPlayerId(), lastPlayer(), playerStateMap, cardState.withDeckRecreatedFromDiscards(rng));
+        return new GameState(tickets, currentPlayerId(), lastPlayer(), playerStateMap, cardState.withDeckRecreatedFromDiscards(nextInt));
     }
 
     /**
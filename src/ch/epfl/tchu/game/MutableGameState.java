@@ -0,0 +1,555 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.util.*;
+
+/**
+ * <b>Class representing a game state modified in place</b>
+ * <p>Same transitions as a <i>GameState</i>, but applied to primitive arrays instead of creating a new state,
+ * each transition being recorded on a stack so that it can be undone with {@link #undo()}.
+ * Meant for simulations and game tree searches, where a lot of states are explored from a single one.
+ * A MutableGameState is not thread safe.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class MutableGameState {
+    //Operations recorded on the undo stack, on top of their arguments
+    private static final int NOTHING = 0,
+            DRAWN_FACE_UP_CARD = 1,
+            BLINDLY_DRAWN_CARD = 2,
+            REMOVED_TOP_CARD = 3,
+            DISCARDED_CARDS = 4,
+            RECREATED_DECK = 5,
+            REMOVED_TOP_TICKETS = 6,
+            ADDED_TICKETS = 7,
+            CLAIMED_ROUTE = 8,
+            NEXT_TURN = 9;
+    private static final int NO_PLAYER = -1;
+
+    private final Ticket[] ticketDeck;
+    private int ticketTop;
+
+    //ordinals of the cards of the deck, the top card being the last one
+    private final int[] deck = new int[Constants.ALL_CARDS.size()];
+    private int deckSize;
+    private final int[] faceUpCards = new int[Constants.FACE_UP_CARDS_COUNT];
+    private final int[] discards = new int[Card.COUNT];
+    private int discardsSize;
+
+    private int currentPlayer, lastPlayer;
+
+    //players' attributes, indexed by the ordinal of their id
+    private final int[][] cards = new int[PlayerId.COUNT][Card.COUNT];
+    private final int[] cardCount = new int[PlayerId.COUNT];
+    private final int[] carCount = new int[PlayerId.COUNT];
+    private final int[] claimPoints = new int[PlayerId.COUNT];
+    private final List<List<Ticket>> tickets = new ArrayList<>(PlayerId.COUNT);
+    private final List<List<Route>> routes = new ArrayList<>(PlayerId.COUNT);
+
+    private int[] undoStack = new int[64];
+    private int undoSize;
+
+    /**
+     * Private constructor of a MutableGameState
+     *
+     * @param ticketDeck the tickets of the deck, from the top to the bottom
+     */
+    private MutableGameState(Ticket[] ticketDeck) {
+        this.ticketDeck = ticketDeck;
+        for (int i = 0; i < PlayerId.COUNT; i++) {
+            tickets.add(new ArrayList<>());
+            routes.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * <b>Create a MutableGameState identical to a GameState</b>
+     *
+     * @param state the GameState to copy
+     * @return a new MutableGameState in the same state as <i>state</i>, with nothing to undo
+     */
+    public static MutableGameState of(GameState state) {
+        MutableGameState s = new MutableGameState(state.ticketDeck().cards().toArray(new Ticket[0]));
+
+        CardState cardState = state.cardState();
+        List<Card> deckCards = cardState.deck().cards();
+        s.deckSize = deckCards.size();
+        for (int i = 0; i < s.deckSize; i++) s.deck[s.deckSize - 1 - i] = deckCards.get(i).ordinal();
+        for (int i = 0; i < Constants.FACE_UP_CARDS_COUNT; i++) s.faceUpCards[i] = cardState.faceUpCard(i).ordinal();
+        for (Card card : Card.ALL) s.discards[card.ordinal()] = cardState.discards().countOf(card);
+        s.discardsSize = cardState.discardsSize();
+
+        s.currentPlayer = state.currentPlayerId().ordinal();
+        s.lastPlayer = state.lastPlayer() == null ? NO_PLAYER : state.lastPlayer().ordinal();
+
+        for (PlayerId id : PlayerId.ALL) {
+            int p = id.ordinal();
+            PlayerState ps = state.playerState(id);
+            for (Card card : Card.ALL) s.cards[p][card.ordinal()] = PackedCards.countOf(ps.packedCards(), card);
+            s.cardCount[p] = ps.cardCount();
+            s.carCount[p] = ps.carCount();
+            s.claimPoints[p] = ps.claimPoints();
+            s.tickets.get(p).addAll(ps.tickets().toList());
+            s.routes.get(p).addAll(ps.routes());
+        }
+        return s;
+    }
+
+    /**
+     * <b>Create the immutable GameState corresponding to this state</b>
+     *
+     * @return a GameState identical to this state
+     */
+    public GameState toGameState() {
+        List<Card> deckCards = new ArrayList<>(deckSize);
+        for (int i = deckSize - 1; i >= 0; i--) deckCards.add(Card.ALL.get(deck[i]));
+        List<Card> faceUp = new ArrayList<>(Constants.FACE_UP_CARDS_COUNT);
+        for (int card : faceUpCards) faceUp.add(Card.ALL.get(card));
+        CardState cardState = CardState.of(faceUp, Deck.ofOrdered(deckCards), CardBag.ofCounts(discards).toSortedBag());
+
+        Map<PlayerId, PlayerState> playerStates = new EnumMap<>(PlayerId.class);
+        for (PlayerId id : PlayerId.ALL) {
+            int p = id.ordinal();
+            playerStates.put(id, new PlayerState(SortedBag.of(tickets.get(p)),
+                    CardBag.ofCounts(cards[p]).toSortedBag(),
+                    routes.get(p)));
+        }
+
+        Deck<Ticket> remainingTickets = Deck.ofOrdered(Arrays.asList(ticketDeck).subList(ticketTop, ticketDeck.length));
+        return GameState.of(remainingTickets, currentPlayerId(), lastPlayer(), playerStates, cardState);
+    }
+
+    /**
+     * @return the id of current player
+     */
+    public PlayerId currentPlayerId() {
+        return PlayerId.ALL.get(currentPlayer);
+    }
+
+    /**
+     * @return the id of the last player, null if the last turn hasn't begin
+     */
+    public PlayerId lastPlayer() {
+        return lastPlayer == NO_PLAYER ? null : PlayerId.ALL.get(lastPlayer);
+    }
+
+    /**
+     * @return the number of remaining tickets in the deck
+     */
+    public int ticketsCount() {
+        return ticketDeck.length - ticketTop;
+    }
+
+    /**
+     * @return if there are tickets left in the deck
+     */
+    public boolean canDrawTickets() {
+        return ticketsCount() > 0;
+    }
+
+    /**
+     * @param count number of tickets you want to see
+     * @return SortedBag of the <i>count</i> top tickets
+     * @throws IllegalArgumentException if count is not between 0 and the size of the ticket deck (included)
+     */
+    public SortedBag<Ticket> topTickets(int count) {
+        Preconditions.checkArgument(0 <= count && count <= ticketsCount());
+        return SortedBag.of(Arrays.asList(ticketDeck).subList(ticketTop, ticketTop + count));
+    }
+
+    /**
+     * @return the size of the card deck
+     */
+    public int deckSize() {
+        return deckSize;
+    }
+
+    /**
+     * @return if the card deck is empty
+     */
+    public boolean isDeckEmpty() {
+        return deckSize == 0;
+    }
+
+    /**
+     * @return the number of discarded cards
+     */
+    public int discardsSize() {
+        return discardsSize;
+    }
+
+    /**
+     * @return if players can draw cards, ie if the deck and the discards contain at least 5 cards
+     */
+    public boolean canDrawCards() {
+        return deckSize + discardsSize >= Constants.FACE_UP_CARDS_COUNT;
+    }
+
+    /**
+     * @return the top card of the deck
+     * @throws IllegalArgumentException if the card deck is empty
+     */
+    public Card topCard() {
+        Preconditions.checkArgument(!isDeckEmpty());
+        return Card.ALL.get(deck[deckSize - 1]);
+    }
+
+    /**
+     * @param slot position of the card
+     * @return the card at the <i>slot</i> position in the face up cards
+     * @throws IndexOutOfBoundsException if <i>slot</i> is not between 0 (inclusive) and 5 (exclusive)
+     */
+    public Card faceUpCard(int slot) {
+        return Card.ALL.get(faceUpCards[Objects.checkIndex(slot, Constants.FACE_UP_CARDS_COUNT)]);
+    }
+
+    /**
+     * @param playerId id of a player
+     * @return the cards of the player
+     */
+    public CardBag cards(PlayerId playerId) {
+        return CardBag.ofCounts(cards[playerId.ordinal()]);
+    }
+
+    /**
+     * @param playerId id of a player
+     * @param card     a card
+     * @return the number of <i>card</i> owned by the player
+     */
+    public int cardCount(PlayerId playerId, Card card) {
+        return cards[playerId.ordinal()][card.ordinal()];
+    }
+
+    /**
+     * @param playerId id of a player
+     * @return the number of cards owned by the player
+     */
+    public int cardCount(PlayerId playerId) {
+        return cardCount[playerId.ordinal()];
+    }
+
+    /**
+     * @param playerId id of a player
+     * @return the number of cars of the player
+     */
+    public int carCount(PlayerId playerId) {
+        return carCount[playerId.ordinal()];
+    }
+
+    /**
+     * @param playerId id of a player
+     * @return the number of construction points obtained by the player when he claimed routes
+     */
+    public int claimPoints(PlayerId playerId) {
+        return claimPoints[playerId.ordinal()];
+    }
+
+    /**
+     * @param playerId id of a player
+     * @return an unmodifiable view of the tickets of the player
+     */
+    public List<Ticket> tickets(PlayerId playerId) {
+        return Collections.unmodifiableList(tickets.get(playerId.ordinal()));
+    }
+
+    /**
+     * @param playerId id of a player
+     * @return an unmodifiable view of the routes claimed by the player
+     */
+    public List<Route> routes(PlayerId playerId) {
+        return Collections.unmodifiableList(routes.get(playerId.ordinal()));
+    }
+
+    /**
+     * @return if the last turn begins
+     */
+    public boolean lastTurnBegins() {
+        return carCount[currentPlayer] <= 2 && lastPlayer == NO_PLAYER;
+    }
+
+    /**
+     * @return if there is a transition to undo
+     */
+    public boolean canUndo() {
+        return undoSize > 0;
+    }
+
+    /**
+     * <b>Remove the top tickets of the deck</b>
+     *
+     * @param count number of tickets you want to withdraw of the ticket's deck
+     * @throws IllegalArgumentException if count is not between 0 and the size of the ticket deck (included)
+     * @see GameState#withoutTopTickets(int)
+     */
+    public void removeTopTickets(int count) {
+        Preconditions.checkArgument(0 <= count && count <= ticketsCount());
+        ticketTop += count;
+        push(count);
+        push(REMOVED_TOP_TICKETS);
+    }
+
+    /**
+     * <b>Remove the top card of the deck</b>
+     *
+     * @throws IllegalArgumentException if the card deck is empty
+     * @see GameState#withoutTopCard()
+     */
+    public void removeTopCard() {
+        Preconditions.checkArgument(!isDeckEmpty());
+        push(deck[--deckSize]);
+        push(REMOVED_TOP_CARD);
+    }
+
+    /**
+     * <b>Add cards to the discard, planes excepted</b>
+     *
+     * @param discardedCards a SortedBag of card who has to be discarded
+     * @see GameState#withMoreDiscardedCards(SortedBag)
+     */
+    public void discard(SortedBag<Card> discardedCards) {
+        for (Card card : Card.ALL) {
+            int n = card == Card.PLANE ? 0 : discardedCards.countOf(card);
+            discards[card.ordinal()] += n;
+            discardsSize += n;
+            push(n);
+        }
+        push(DISCARDED_CARDS);
+    }
+
+    /**
+     * <b>Recreate the card deck from the discards if it is empty</b>
+     * <p>With a random in the same state, the deck is shuffled exactly like the one of a GameState.</p>
+     *
+     * @param rng splittable random to shuffle the deck
+     * @see GameState#withCardsDeckRecreatedIfNeeded(SplittableRandom)
+     */
+    public void recreateCardsDeckIfNeeded(SplittableRandom rng) {
+        if (!isDeckEmpty()) {
+            push(NOTHING);
+            return;
+        }
+        //same Fisher–Yates as Deck, the top card being at index 0
+        int[] shuffled = new int[discardsSize];
+        int size = 0;
+        for (int card = 0; card < Card.COUNT; card++) {
+            for (int n = 0; n < discards[card]; n++) shuffled[size++] = card;
+            discards[card] = 0;
+        }
+        for (int i = size; i > 1; i--) {
+            int j = rng.nextInt(i);
+            int swap = shuffled[i - 1];
+            shuffled[i - 1] = shuffled[j];
+            shuffled[j] = swap;
+        }
+        for (int i = 0; i < size; i++) deck[size - 1 - i] = shuffled[i];
+        deckSize = size;
+        discardsSize = 0;
+        push(RECREATED_DECK);
+    }
+
+    /**
+     * <b>Add the initially chosen tickets to the state of a player</b>
+     *
+     * @param playerId      the id of the player
+     * @param chosenTickets the tickets he has chosen
+     * @throws IllegalArgumentException if the player already have a ticket
+     * @see GameState#withInitiallyChosenTickets(PlayerId, SortedBag)
+     */
+    public void chooseInitialTickets(PlayerId playerId, SortedBag<Ticket> chosenTickets) {
+        Preconditions.checkArgument(tickets.get(playerId.ordinal()).isEmpty());
+        addTickets(0, playerId.ordinal(), chosenTickets);
+    }
+
+    /**
+     * <b>Add the chosen tickets to the state of the current player</b>
+     *
+     * @param drawnTickets  ticket drawn from the ticket deck
+     * @param chosenTickets tickets from drawnTickets chosen by the current player
+     * @throws IllegalArgumentException if drawnTickets don't contains chosenTickets
+     * @see GameState#withChosenAdditionalTickets(SortedBag, SortedBag)
+     */
+    public void chooseAdditionalTickets(SortedBag<Ticket> drawnTickets, SortedBag<Ticket> chosenTickets) {
+        Preconditions.checkArgument(drawnTickets.contains(chosenTickets));
+        Preconditions.checkArgument(drawnTickets.size() <= ticketsCount());
+        addTickets(drawnTickets.size(), currentPlayer, chosenTickets);
+    }
+
+    /**
+     * <b>Draw one of the face up cards for the current player</b>
+     *
+     * @param slot slot of the card drawn by the player, replaced by the top card of the deck
+     * @throws IllegalArgumentException if the card deck is empty
+     * @see GameState#withDrawnFaceUpCard(int)
+     */
+    public void drawFaceUpCard(int slot) {
+        Objects.checkIndex(slot, Constants.FACE_UP_CARDS_COUNT);
+        Preconditions.checkArgument(!isDeckEmpty());
+        int card = faceUpCards[slot];
+        addCard(currentPlayer, card, 1);
+        faceUpCards[slot] = deck[--deckSize];
+        push(card);
+        push(slot);
+        push(DRAWN_FACE_UP_CARD);
+    }
+
+    /**
+     * <b>Draw the top card of the deck for the current player</b>
+     *
+     * @throws IllegalArgumentException if the card deck is empty
+     * @see GameState#withBlindlyDrawnCard()
+     */
+    public void drawBlindly() {
+        Preconditions.checkArgument(!isDeckEmpty());
+        int card = deck[--deckSize];
+        addCard(currentPlayer, card, 1);
+        push(card);
+        push(BLINDLY_DRAWN_CARD);
+    }
+
+    /**
+     * <b>Claim a route for the current player</b>
+     *
+     * @param route     route claimed by the player
+     * @param claimCards cards used to claim the route, put in the discards (planes excepted)
+     * @see GameState#withClaimedRoute(Route, SortedBag)
+     */
+    public void claimRoute(Route route, SortedBag<Card> claimCards) {
+        int[] hand = cards[currentPlayer];
+        for (Card card : Card.ALL) {
+            int n = claimCards.countOf(card);
+            int removed = Math.min(n, hand[card.ordinal()]);
+            addCard(currentPlayer, card.ordinal(), -removed);
+            int discarded = card == Card.PLANE ? 0 : n;
+            discards[card.ordinal()] += discarded;
+            discardsSize += discarded;
+            push(removed);
+            push(discarded);
+        }
+        routes.get(currentPlayer).add(route);
+        carCount[currentPlayer] -= route.length();
+        claimPoints[currentPlayer] += route.claimPoints();
+        push(CLAIMED_ROUTE);
+    }
+
+    /**
+     * <b>Go to the next turn</b>
+     * <p>If the last turn begins, the current player becomes the last player.</p>
+     *
+     * @see GameState#forNextTurn()
+     */
+    public void nextTurn() {
+        push(lastPlayer);
+        if (lastTurnBegins()) lastPlayer = currentPlayer;
+        currentPlayer = (currentPlayer + 1) % PlayerId.COUNT;
+        push(NEXT_TURN);
+    }
+
+    /**
+     * <b>Undo the last transition which has not been undone yet</b>
+     *
+     * @throws IllegalStateException if there is no transition to undo
+     */
+    public void undo() {
+        if (undoSize == 0) throw new IllegalStateException();
+        switch (pop()) {
+            case NOTHING:
+                break;
+            case DRAWN_FACE_UP_CARD: {
+                int slot = pop();
+                int card = pop();
+                deck[deckSize++] = faceUpCards[slot];
+                faceUpCards[slot] = card;
+                addCard(currentPlayer, card, -1);
+                break;
+            }
+            case BLINDLY_DRAWN_CARD: {
+                int card = pop();
+                deck[deckSize++] = card;
+                addCard(currentPlayer, card, -1);
+                break;
+            }
+            case REMOVED_TOP_CARD:
+                deck[deckSize++] = pop();
+                break;
+            case DISCARDED_CARDS:
+                for (int card = Card.COUNT - 1; card >= 0; card--) {
+                    int n = pop();
+                    discards[card] -= n;
+                    discardsSize -= n;
+                }
+                break;
+            case RECREATED_DECK:
+                for (int i = 0; i < deckSize; i++) discards[deck[i]]++;
+                discardsSize = deckSize;
+                deckSize = 0;
+                break;
+            case REMOVED_TOP_TICKETS:
+                ticketTop -= pop();
+                break;
+            case ADDED_TICKETS: {
+                int count = pop();
+                List<Ticket> playerTickets = tickets.get(pop());
+                playerTickets.subList(playerTickets.size() - count, playerTickets.size()).clear();
+                ticketTop -= pop();
+                break;
+            }
+            case CLAIMED_ROUTE: {
+                List<Route> playerRoutes = routes.get(currentPlayer);
+                Route route = playerRoutes.remove(playerRoutes.size() - 1);
+                carCount[currentPlayer] += route.length();
+                claimPoints[currentPlayer] -= route.claimPoints();
+                for (int card = Card.COUNT - 1; card >= 0; card--) {
+                    int discarded = pop();
+                    discards[card] -= discarded;
+                    discardsSize -= discarded;
+                    addCard(currentPlayer, card, pop());
+                }
+                break;
+            }
+            case NEXT_TURN:
+                currentPlayer = (currentPlayer + PlayerId.COUNT - 1) % PlayerId.COUNT;
+                lastPlayer = pop();
+                break;
+            default:
+                throw new Error();
+        }
+    }
+
+    /**
+     * Add tickets to a player after having removed tickets from the deck
+     *
+     * @param drawnCount number of tickets removed from the deck
+     * @param player     ordinal of the player
+     * @param chosen     tickets added to the player
+     */
+    private void addTickets(int drawnCount, int player, SortedBag<Ticket> chosen) {
+        ticketTop += drawnCount;
+        tickets.get(player).addAll(chosen.toList());
+        push(drawnCount);
+        push(player);
+        push(chosen.size());
+        push(ADDED_TICKETS);
+    }
+
+    /**
+     * @param player ordinal of the player
+     * @param card   ordinal of the card
+     * @param n      number of cards to add (removed if negative)
+     */
+    private void addCard(int player, int card, int n) {
+        cards[player][card] += n;
+        cardCount[player] += n;
+    }
+
+    private void push(int value) {
+        if (undoSize == undoStack.length) undoStack = Arrays.copyOf(undoStack, 2 * undoSize);
+        undoStack[undoSize++] = value;
+    }
+
+    private int pop() {
+        return undoStack[--undoSize];
+    }
+}
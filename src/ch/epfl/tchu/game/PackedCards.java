@@ -0,0 +1,162 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+/**
+ * <b>Class containing methods to work on multisets of cards packed in a long</b>
+ * <p>Each card has a 6-bit counter, at bits <i>6·ordinal</i> to <i>6·ordinal + 5</i>.
+ * The highest bit of each counter is kept at 0 and used as a guard to compare counters
+ * in parallel, so a card can appear at most {@value #MAX_COUNT} times.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class PackedCards {
+    private PackedCards() {
+    }
+
+    /**
+     * The empty multiset of cards
+     */
+    public static final long EMPTY = 0L;
+
+    /**
+     * Maximal multiplicity of a card in a packed multiset
+     */
+    public static final int MAX_COUNT = 31;
+
+    private static final int BITS_PER_CARD = 6;
+    private static final long COUNT_MASK = (1L << BITS_PER_CARD) - 1;
+    //Bit 0 of every counter
+    private static final long LOW_BITS = computeLowBits();
+    //Guard bit (bit 5) of every counter
+    private static final long GUARD_BITS = LOW_BITS << (BITS_PER_CARD - 1);
+
+    private static long computeLowBits() {
+        long bits = 0;
+        for (int i = 0; i < Card.COUNT; i++) bits |= 1L << (BITS_PER_CARD * i);
+        return bits;
+    }
+
+    /**
+     * @param card the unique card of the multiset
+     * @return the packed multiset containing only <i>card</i>
+     */
+    public static long of(Card card) {
+        return of(1, card);
+    }
+
+    /**
+     * @param n    multiplicity of the card
+     * @param card the card
+     * @return the packed multiset containing <i>n</i> times <i>card</i>
+     * @throws IllegalArgumentException if <i>n</i> is not between 0 and {@value #MAX_COUNT} (included)
+     */
+    public static long of(int n, Card card) {
+        Preconditions.checkArgument(0 <= n && n <= MAX_COUNT);
+        return (long) n << (BITS_PER_CARD * card.ordinal());
+    }
+
+    /**
+     * @param cards the cards of the multiset
+     * @return the packed multiset containing exactly the cards of <i>cards</i>
+     * @throws IllegalArgumentException if a card appears more than {@value #MAX_COUNT} times
+     */
+    public static long of(SortedBag<Card> cards) {
+        long packed = EMPTY;
+        for (Card card : cards.toSet()) packed |= of(cards.countOf(card), card);
+        return packed;
+    }
+
+    /**
+     * @param cards the cards of the multiset
+     * @return the packed multiset containing exactly the cards of <i>cards</i>
+     * @throws IllegalArgumentException if a card appears more than {@value #MAX_COUNT} times
+     */
+    public static long of(CardBag cards) {
+        long packed = EMPTY;
+        for (Card card : Card.ALL) packed |= of(cards.countOf(card), card);
+        return packed;
+    }
+
+    /**
+     * @param packed a packed multiset
+     * @return the SortedBag containing the cards of <i>packed</i>
+     */
+    public static SortedBag<Card> toSortedBag(long packed) {
+        SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+        for (Card card : Card.ALL) builder.add(countOf(packed, card), card);
+        return builder.build();
+    }
+
+    /**
+     * @param packed a packed multiset
+     * @return the CardBag containing the cards of <i>packed</i>
+     */
+    public static CardBag toCardBag(long packed) {
+        int[] counts = new int[Card.COUNT];
+        for (Card card : Card.ALL) counts[card.ordinal()] = countOf(packed, card);
+        return CardBag.ofCounts(counts);
+    }
+
+    /**
+     * @param packed a packed multiset
+     * @param card   the card you want the multiplicity of
+     * @return the multiplicity of <i>card</i> in <i>packed</i>
+     */
+    public static int countOf(long packed, Card card) {
+        return (int) ((packed >>> (BITS_PER_CARD * card.ordinal())) & COUNT_MASK);
+    }
+
+    /**
+     * @param packed a packed multiset
+     * @return the number of cards in <i>packed</i>
+     */
+    public static int size(long packed) {
+        int size = 0;
+        for (; packed != 0; packed >>>= BITS_PER_CARD) size += (int) (packed & COUNT_MASK);
+        return size;
+    }
+
+    /**
+     * @param packed a packed multiset
+     * @return if <i>packed</i> is empty
+     */
+    public static boolean isEmpty(long packed) {
+        return packed == EMPTY;
+    }
+
+    /**
+     * @param p1 a packed multiset
+     * @param p2 a packed multiset
+     * @return the union of <i>p1</i> and <i>p2</i>
+     * @throws IllegalArgumentException if a card would appear more than {@value #MAX_COUNT} times
+     */
+    public static long union(long p1, long p2) {
+        long sum = p1 + p2;
+        Preconditions.checkArgument((sum & GUARD_BITS) == 0);
+        return sum;
+    }
+
+    /**
+     * @param p1 a packed multiset
+     * @param p2 a packed multiset
+     * @return the difference between <i>p1</i> and <i>p2</i> (counters stop at 0)
+     */
+    public static long difference(long p1, long p2) {
+        //the guard bit of a counter stays set iff the counter of p1 is greater or equal to the one of p2
+        long guarded = (p1 | GUARD_BITS) - p2;
+        long notNegative = (guarded & GUARD_BITS) >>> (BITS_PER_CARD - 1);
+        return guarded & (notNegative * (COUNT_MASK >>> 1));
+    }
+
+    /**
+     * @param p1 a packed multiset
+     * @param p2 a packed multiset
+     * @return if <i>p2</i> is a subset of <i>p1</i>
+     */
+    public static boolean contains(long p1, long p2) {
+        return (((p1 | GUARD_BITS) - p2) & GUARD_BITS) == GUARD_BITS;
+    }
+}
@@ -3,15 +3,16 @@ package ch.epfl.tchu.game;
 import ch.epfl.tchu.SortedBag;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * <b>Interface of a player</b>
+ * <p>A player is informed of the course of the game by the methods of PlayerInformer, and asked his decisions
+ * by the methods below.</p>
  *
  * @author Albert Troussard (330361)
  * @author Ménélik Nouvellon (328132)
  */
-public interface Player {
+public interface Player extends PlayerInformer {
     /**
      * <b>enumeration of the different kinds of turn:</b>
      * <li><i>DRAW_TICKETS</i>
@@ -24,37 +25,6 @@ public interface Player {
         public static final List<TurnKind> ALL = List.of(TurnKind.values());
     }
 
-    /**
-     * communicate to the player his own ownId identity, as well as the names of the different players,
-     * including his own
-     *
-     * @param ownId       player's identity
-     * @param playerNames Map that maps a player to this name
-     */
-    void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames);
-
-    /**
-     * this method is called when information must be communicated to the player during the game
-     *
-     * @param info the string that contains the information (from class Info)
-     */
-     void receiveInfo(String info);
-
-    /**
-     * this method is called when the gameState has changed to inform players of the new gameState
-     *
-     * @param newState new game state that needs to be updated to
-     * @param ownState state of the concerned player
-     */
-    void updateState(PublicGameState newState, PlayerState ownState);
-
-    /**
-     * communicate to the player the five tickets that have been distributed
-     *
-     * @param tickets that have been distributed
-     */
-    void setInitialTicketChoice(SortedBag<Ticket> tickets);
-
     /**
      * ask the player which of the tickets he was initially given out he's keeping
      *
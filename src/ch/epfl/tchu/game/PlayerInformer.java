@@ -0,0 +1,46 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.util.Map;
+
+/**
+ * <b>Interface of what is told to a player during a game</b>
+ * <p>The methods do not return anything: they are all that a GameEngine needs from the players,
+ * the decisions being asked through its requests.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public interface PlayerInformer {
+    /**
+     * communicate to the player his own ownId identity, as well as the names of the different players,
+     * including his own
+     *
+     * @param ownId       player's identity
+     * @param playerNames Map that maps a player to this name
+     */
+    void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames);
+
+    /**
+     * this method is called when information must be communicated to the player during the game
+     *
+     * @param info the string that contains the information (from class Info)
+     */
+    void receiveInfo(String info);
+
+    /**
+     * this method is called when the gameState has changed to inform players of the new gameState
+     *
+     * @param newState new game state that needs to be updated to
+     * @param ownState state of the concerned player
+     */
+    void updateState(PublicGameState newState, PlayerState ownState);
+
+    /**
+     * communicate to the player the five tickets that have been distributed
+     *
+     * @param tickets that have been distributed
+     */
+    void setInitialTicketChoice(SortedBag<Ticket> tickets);
+}
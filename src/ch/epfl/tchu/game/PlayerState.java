@@ -4,7 +4,6 @@ import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Class representing the state of a player
@@ -15,7 +14,16 @@ import java.util.stream.Collectors;
  */
 public final class PlayerState extends PublicPlayerState {
     private final SortedBag<Ticket> tickets;
-    private final SortedBag<Card> cards;
+    //cards owned by the player, packed by PackedCards
+    private final long cards;
+    //the following are only built when asked for, and volatile as a state can be read by several threads
+    //(the game and the graphical interface, the simulator): a thread never sees them half built
+    //SortedBag view of the cards
+    private volatile SortedBag<Card> sortedCards;
+    //longest trail of the routes, then kept up to date by withClaimedRoute
+    private volatile TrailTracker trails;
+    //stations connected by the routes, then kept up to date by withClaimedRoute
+    private volatile StationPartition partition;
 
 
     /**
@@ -24,12 +32,39 @@ public final class PlayerState extends PublicPlayerState {
      * @param tickets tickets owned by the player
      * @param cards   cards owned by the player
      * @param routes  routes claimed by the player
+     * @throws IllegalArgumentException if a card appears more than PackedCards.MAX_COUNT times in <i>cards</i>
      */
     public PlayerState(SortedBag<Ticket> tickets, SortedBag<Card> cards, List<Route> routes) {
-        super(tickets.size(), cards.size(), routes);
+        this(tickets, PackedCards.of(cards), routes);
+        this.sortedCards = cards;
+    }
+
+    /**
+     * Private constructor of a PlayerState used by the transitions
+     *
+     * @param tickets tickets owned by the player
+     * @param cards   cards owned by the player, packed
+     * @param routes  routes claimed by the player
+     */
+    private PlayerState(SortedBag<Ticket> tickets, long cards, List<Route> routes) {
+        this(tickets, cards, routes, null, null);
+    }
+
+    /**
+     * Private constructor of a PlayerState used by the transitions
+     *
+     * @param tickets tickets owned by the player
+     * @param cards   cards owned by the player, packed
+     * @param routes  routes claimed by the player
+     * @param trails    tracker of the longest trail of <i>routes</i>, null if not computed yet
+     * @param partition partition of the stations connected by <i>routes</i>, null if not computed yet
+     */
+    private PlayerState(SortedBag<Ticket> tickets, long cards, List<Route> routes, TrailTracker trails, StationPartition partition) {
+        super(tickets.size(), PackedCards.size(cards), routes);
         this.tickets = tickets;
         this.cards = cards;
-
+        this.trails = trails;
+        this.partition = partition;
     }
 
     /**
@@ -41,7 +76,8 @@ public final class PlayerState extends PublicPlayerState {
      */
     public static PlayerState initial(SortedBag<Card> initialCards) {
         Preconditions.checkArgument(initialCards.size() == Constants.INITIAL_CARDS_COUNT);
-        return new PlayerState(SortedBag.of(), initialCards, List.of());
+        return new PlayerState(SortedBag.of(), PackedCards.of(initialCards), List.of(),
+                TrailTracker.empty(), new StationPartition.Builder(ChMap.stations().size()).build());
     }
 
     /**
@@ -59,6 +95,20 @@ public final class PlayerState extends PublicPlayerState {
      * @return player's cards
      */
     public SortedBag<Card> cards() {
+        SortedBag<Card> sorted = sortedCards;
+        if (sorted == null) {
+            sorted = PackedCards.toSortedBag(cards);
+            sortedCards = sorted;
+        }
+        return sorted;
+    }
+
+    /**
+     * <b>Getter for player's cards packed in a long</b>
+     *
+     * @return player's cards, packed by PackedCards
+     */
+    public long packedCards() {
         return cards;
     }
 
@@ -69,7 +119,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return PlayerState with additional tickets
      */
     public PlayerState withAddedTickets(SortedBag<Ticket> newTickets) {
-        return new PlayerState(tickets.union(newTickets), cards, routes());
+        return new PlayerState(tickets.union(newTickets), cards, routes(), trails, partition);
     }
 
 
@@ -80,7 +130,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return PlayerState with the additional card
      */
     public PlayerState withAddedCard(Card card) {
-        return withAddedCards(SortedBag.of(card));
+        return new PlayerState(tickets, PackedCards.union(cards, PackedCards.of(card)), routes(), trails, partition);
     }
 
     /**
@@ -90,7 +140,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return PlayerState with additional cards
      */
     public PlayerState withAddedCards(SortedBag<Card> additionalCards) {
-        return new PlayerState(tickets, cards.union(additionalCards), routes());
+        return new PlayerState(tickets, PackedCards.union(cards, PackedCards.of(additionalCards)), routes(), trails, partition);
     }
 
     /**
@@ -100,9 +150,32 @@ public final class PlayerState extends PublicPlayerState {
      * @return whether the player can take the route
      */
     public boolean canClaimRoute(Route route) {
+        if (carCount() < route.length()) return false;
+        return route.canBeClaimedWith(cards);
+    }
+
+    /**
+     * <b>Compute all the routes of the map that the player can claim</b>
+     * <p>A route can be claimed if neither it nor a route between the same stations has been claimed,
+     * if the player has enough cars and if his cards contain one of the route's claim options.</p>
+     *
+     * @param gameState the public state of the game, giving the routes already claimed
+     * @return the set of the indexes (in <i>ChMap.routes()</i>) of the routes the player can claim
+     */
+    public BitSet claimableRoutes(PublicGameState gameState) {
+        RouteGraph graph = ChMap.graph();
+        BitSet claimable = new BitSet(graph.routeCount());
+        for (int i = 0; i < graph.routeCount(); i++) {
+            if (!isParallelGroupClaimed(gameState, graph, i) && canClaimRoute(graph.route(i))) claimable.set(i);
+        }
+        return claimable;
+    }
 
-        for (SortedBag<Card> possibleClaimCards : route.possibleClaimCards()) {
-            if (cards.contains(possibleClaimCards) && (carCount() >= route.length())) return true;
+    //if the route or a route linking the same stations has already been claimed
+    private static boolean isParallelGroupClaimed(PublicGameState gameState, RouteGraph graph, int route) {
+        int group = graph.parallelGroup(route);
+        for (int i = 0; i < graph.groupSize(group); i++) {
+            if (gameState.isClaimed(graph.route(graph.groupRoute(group, i)))) return true;
         }
         return false;
     }
@@ -122,39 +195,27 @@ public final class PlayerState extends PublicPlayerState {
 
 
         Color colorRoute = route.color();
-        List<SortedBag<Card>> result = new ArrayList<>();
-        if (cards.isEmpty()) return List.of();
-
+        List<Color> colors = colorRoute == null ? Color.ALL : List.of(colorRoute);
+        int length = route.length();
+        int locomotives = PackedCards.countOf(cards, Card.LOCOMOTIVE);
+        //only tunnels can be claimed with locomotives
+        int maxLocomotives = route.level() == Route.Level.UNDERGROUND ? Math.min(length, locomotives) : 0;
 
-        Set<SortedBag<Card>> allPossibilities = cards.subsetsOfSize(route.length());
-
-        if (colorRoute != null) {
-            for (SortedBag<Card> sd : allPossibilities) {
-                int aux = 0;
-                for (Card cd : sd) {
-                    if (route.level() == Route.Level.UNDERGROUND)
-                        if ((cd.color() == route.color()) || (cd.color() == null)) aux += 1;
-                    if (route.level() == Route.Level.OVERGROUND) if (cd.color() == route.color()) aux += 1;
-                }
-                if (aux == sd.size()&&!(sd.contains(Card.PLANE))) result.add(sd);
+        //built sorted by number of locomotives, then by color
+        List<SortedBag<Card>> result = new ArrayList<>();
+        for (int locomotiveCount = 0; locomotiveCount <= maxLocomotives; locomotiveCount++) {
+            int colorCount = length - locomotiveCount;
+            if (colorCount == 0) {
+                result.add(SortedBag.of(locomotiveCount, Card.LOCOMOTIVE));
+                break;
             }
-        } else {
-            for (Color color : Color.ALL) {
-                for (SortedBag<Card> sd : allPossibilities) {
-                    int aux = 0;
-                    for (Card cd : sd) {
-                        if (route.level() == Route.Level.UNDERGROUND)
-                            if ((cd.color() == color) || (cd.color() == null)) aux += 1;
-                        if (route.level() == Route.Level.OVERGROUND) if (cd.color() == color) aux += 1;
-                    }
-                    if (aux == sd.size()&&!(sd.contains(Card.PLANE))) result.add(sd);
-                }
+            for (Color color : colors) {
+                Card colorCard = Card.of(color);
+                if (PackedCards.countOf(cards, colorCard) >= colorCount)
+                    result.add(SortedBag.of(colorCount, colorCard, locomotiveCount, Card.LOCOMOTIVE));
             }
         }
-        List<SortedBag<Card>> list2= result.stream().distinct().collect(Collectors.toList());
-        list2.sort(Comparator.comparingInt(cs -> cs.countOf(Card.LOCOMOTIVE)));
-
-        return list2;
+        return result;
     }
 
     /**
@@ -174,13 +235,13 @@ public final class PlayerState extends PublicPlayerState {
 
 
         if (initialCards.contains(Card.PLANE)) {
-            if (cards.contains(SortedBag.of(additionalCardsCount, Card.LOCOMOTIVE)))
+            if (PackedCards.countOf(cards, Card.LOCOMOTIVE) >= additionalCardsCount)
                 return List.of(SortedBag.of(additionalCardsCount, Card.LOCOMOTIVE));
             return List.of();
         }
 
 
-        SortedBag<Card> currentCards = cards.difference(initialCards);
+        long currentCards = PackedCards.difference(cards, PackedCards.of(initialCards));
 
         //Find the color of the tunnel
         Color color = null;
@@ -207,7 +268,7 @@ public final class PlayerState extends PublicPlayerState {
 
         List<SortedBag<Card>> result = new ArrayList<>();
         for (SortedBag<Card> stc : allPossibilities) {
-            if (currentCards.contains(stc)) result.add(stc);
+            if (PackedCards.contains(currentCards, PackedCards.of(stc))) result.add(stc);
         }
         return result;
     }
@@ -222,7 +283,11 @@ public final class PlayerState extends PublicPlayerState {
     public PlayerState withClaimedRoute(Route route, SortedBag<Card> claimCards) {
         List<Route> copy = new ArrayList<>(routes());
         copy.add(route);
-        return new PlayerState(tickets, cards.difference(claimCards), copy);
+        TrailTracker currentTrails = trails;
+        StationPartition currentPartition = partition;
+        return new PlayerState(tickets, PackedCards.difference(cards, PackedCards.of(claimCards)), copy,
+                currentTrails == null ? null : currentTrails.withRoute(route),
+                currentPartition == null ? null : currentPartition.withConnected(route.station1(), route.station2()));
     }
 
     /**
@@ -231,19 +296,56 @@ public final class PlayerState extends PublicPlayerState {
      * @return the number of points obtained by the player thanks to his tickets
      */
     public int ticketPoints() {
-        int maxId = routes().stream()
-                .mapToInt(r -> Math.max(r.station1().id(), r.station2().id()))
-                .max().orElse(0);
-        maxId++;
-        StationPartition.Builder builder = new StationPartition.Builder(maxId);
-        routes().forEach(route -> builder.connect(route.station1(), route.station2()));
-        StationPartition partition = builder.build();
-        int ticketPoint = tickets.stream()
-                .mapToInt(t -> t.points(partition))
-                .sum();
+        StationConnectivity connectivity = connectivity();
+        int ticketPoint = 0;
+        for (Ticket ticket : tickets) ticketPoint += ticket.points(connectivity);
         return ticketPoint;
     }
 
+    /**
+     * <b>Getter for the connectivity of the player's network</b>
+     * <p>Computed on the first call, then updated by <i>withClaimedRoute</i>.</p>
+     *
+     * @return the partition of the stations connected by the routes claimed by the player
+     */
+    public StationConnectivity connectivity() {
+        StationPartition current = partition;
+        if (current == null) {
+            int maxId = routes().stream()
+                    .mapToInt(r -> Math.max(r.station1().id(), r.station2().id()))
+                    .max().orElse(0);
+            maxId++;
+            StationPartition.Builder builder = new StationPartition.Builder(maxId);
+            routes().forEach(route -> builder.connect(route.station1(), route.station2()));
+            current = builder.build();
+            partition = current;
+        }
+        return current;
+    }
+
+    /**
+     * <b>Getter for the longest trail of the player</b>
+     * <p>Computed on the first call, then updated by <i>withClaimedRoute</i> by searching again
+     * only the part of the network connected to the new route.</p>
+     *
+     * @return the longest trail made of the routes claimed by the player
+     */
+    public Trail longestTrail() {
+        TrailTracker current = trails;
+        if (current == null) {
+            current = TrailTracker.of(routes());
+            trails = current;
+        }
+        return current.longest();
+    }
+
+    /**
+     * @return the length of the longest trail made of the routes claimed by the player
+     */
+    public int longestTrailLength() {
+        return longestTrail().length();
+    }
+
     /**
      * Compute the final points of the player
      *
@@ -3,6 +3,7 @@ package ch.epfl.tchu.game;
 import ch.epfl.tchu.Preconditions;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +18,8 @@ public class PublicGameState {
     private final PlayerId currentPlayerId, lastPlayer;
     private final PublicCardState cardState;
     private final Map<PlayerId, PublicPlayerState> playerState;
+    //routes claimed by any player, computed when asked for, volatile as the state can be read by several threads
+    private volatile List<Route> claimedRoutes;
 
     /**
      * Constructor of PublicGameState
@@ -96,11 +99,35 @@ public class PublicGameState {
      * @return the list of routes already claimed by any player
      */
     public List<Route> claimedRoutes() {
-        List<Route> routes = new ArrayList<>();
+        List<Route> claimed = claimedRoutes;
+        if (claimed == null) {
+            List<Route> routes = new ArrayList<>();
+            for (PlayerId id : PlayerId.ALL) {
+                routes.addAll(playerState.get(id).routes());
+            }
+            claimed = Collections.unmodifiableList(routes);
+            claimedRoutes = claimed;
+        }
+        return claimed;
+    }
+
+    /**
+     * @param route a route
+     * @return the id of the player who claimed <i>route</i>, null if nobody claimed it
+     */
+    public PlayerId owner(Route route) {
         for (PlayerId id : PlayerId.ALL) {
-            routes.addAll(playerState.get(id).routes());
+            if (playerState.get(id).hasClaimed(route)) return id;
         }
-        return routes;
+        return null;
+    }
+
+    /**
+     * @param route a route
+     * @return if <i>route</i> has already been claimed by any player
+     */
+    public boolean isClaimed(Route route) {
+        return owner(route) != null;
     }
 
     /**
@@ -2,6 +2,7 @@ package ch.epfl.tchu.game;
 
 import ch.epfl.tchu.Preconditions;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -17,6 +18,9 @@ public class PublicPlayerState {
             carCount,
             claimPoints;
     private final List<Route> routes;
+    //indexes in ChMap.routes() of the routes, only computed when asked for
+    //volatile so that a thread never sees the bitset before it is filled
+    private volatile BitSet routeIndexes;
 
     /**
      * Constructor of a PublicPlayerState
@@ -83,4 +87,24 @@ public class PublicPlayerState {
     public List<Route> routes() {
         return routes;
     }
+
+    /**
+     * <b>Compute if the player has claimed the given Route</b>
+     *
+     * @param route a route
+     * @return if <i>route</i> is one of the roads that the player has seized
+     */
+    public boolean hasClaimed(Route route) {
+        int index = route.index();
+        if (index < 0) return routes.contains(route);
+        BitSet indexes = routeIndexes;
+        if (indexes == null) {
+            indexes = new BitSet(ChMap.routes().size());
+            for (Route r : routes) {
+                if (r.index() >= 0) indexes.set(r.index());
+            }
+            routeIndexes = indexes;
+        }
+        return indexes.get(index);
+    }
 }
@@ -5,7 +5,7 @@ import ch.epfl.tchu.SortedBag;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import static java.util.Objects.requireNonNull;
 
@@ -25,9 +25,16 @@ public final class Route {
 
     private final String id;
     private final Station station1, station2;
+    private final List<Station> stations;
     private final int length;
     private final Level level;
     private final Color color;
+    //index of the route in ChMap.routes(), -1 for a route which is not on the map
+    private final int index;
+    //ways to claim the route, computed once as routes are immutable
+    private final List<SortedBag<Card>> possibleClaimCards;
+    //the same ways, packed by PackedCards
+    private final long[] packedClaimCards;
 
     /**
      * <b>Constructor of a Route</b>
@@ -46,9 +53,52 @@ public final class Route {
         this.id = id;
         this.station1 = station1;
         this.station2 = station2;
+        this.stations = List.of(station1, station2);
         this.length = length;
         this.level = level;
         this.color = color;
+        this.index = -1;
+        this.possibleClaimCards = List.copyOf(computePossibleClaimCards(length, level, color));
+        this.packedClaimCards = possibleClaimCards.stream().mapToLong(PackedCards::of).toArray();
+    }
+
+    /**
+     * Private constructor copying a Route with a new index
+     *
+     * @param route the route to copy
+     * @param index index of the copy
+     */
+    private Route(Route route, int index) {
+        this.id = route.id;
+        this.station1 = route.station1;
+        this.station2 = route.station2;
+        this.stations = route.stations;
+        this.length = route.length;
+        this.level = route.level;
+        this.color = route.color;
+        this.index = index;
+        this.possibleClaimCards = route.possibleClaimCards;
+        this.packedClaimCards = route.packedClaimCards;
+    }
+
+    /**
+     * @param index the index of the route in ChMap.routes()
+     * @return the same route with the given index
+     */
+    Route withIndex(int index) {
+        Preconditions.checkArgument(index >= 0);
+        return new Route(this, index);
+    }
+
+    /**
+     * <b>Getter of the Route's index</b>
+     * <p>Routes of the map are numbered from 0 in the order of <i>ChMap.routes()</i>,
+     * which makes the index usable in arrays and bitsets.</p>
+     *
+     * @return index of the route, -1 if it is not a route of the map
+     */
+    public int index() {
+        return index;
     }
 
     /**
@@ -111,9 +161,6 @@ public final class Route {
      * @return the list of the connected stations
      */
     public List<Station> stations() {
-        List<Station> stations = new ArrayList<>();
-        stations.add(station1);
-        stations.add(station2);
         return stations;
     }
 
@@ -130,11 +177,36 @@ public final class Route {
     }
 
     /**
-     * <b>Compute the ways for a player to claim the Route</b>
+     * <b>Getter of the ways for a player to claim the Route</b>
      *
-     * @return the different ways for the player to choose his cards to claim the route
+     * @return the different ways for the player to choose his cards to claim the route (unmodifiable)
      */
     public List<SortedBag<Card>> possibleClaimCards() {
+        return possibleClaimCards;
+    }
+
+    /**
+     * <b>Compute if the given cards contain one of the ways to claim the Route</b>
+     *
+     * @param packedCards cards packed by PackedCards
+     * @return if one of the elements of <i>possibleClaimCards()</i> is contained in <i>packedCards</i>
+     */
+    public boolean canBeClaimedWith(long packedCards) {
+        for (long claimCards : packedClaimCards) {
+            if (PackedCards.contains(packedCards, claimCards)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * <b>Compute the ways for a player to claim a Route</b>
+     *
+     * @param length length of the Route
+     * @param level  Level of the Route
+     * @param color  color of the Route
+     * @return the different ways for the player to choose his cards to claim the route
+     */
+    private static List<SortedBag<Card>> computePossibleClaimCards(int length, Level level, Color color) {
 
     if(level==Level.SKY) return List.of(SortedBag.of(Card.PLANE));
 
@@ -142,7 +214,7 @@ public final class Route {
         List<SortedBag<Card>> result = new ArrayList<>();
 
         //if it's a non-coloured route
-        if (this.color == null) {
+        if (color == null) {
             if (level.equals(Level.UNDERGROUND)) {
                 for (int i = 0; i < length; ++i) {
                     int a = i;
@@ -160,11 +232,11 @@ public final class Route {
         else {
             if (level.equals(Level.UNDERGROUND)) {
                 for (int i = 0; i < length + 1; ++i) {
-                    SortedBag<Card> r = SortedBag.of(length - i, Card.of(this.color), i, Card.LOCOMOTIVE);
+                    SortedBag<Card> r = SortedBag.of(length - i, Card.of(color), i, Card.LOCOMOTIVE);
                     if (!r.isEmpty()) result.add(r);
                 }
             } else {
-                result.add(SortedBag.of(length, Card.of(this.color)));
+                result.add(SortedBag.of(length, Card.of(color)));
             }
         }
         return result;
@@ -179,10 +251,11 @@ public final class Route {
      * @return Number of additional cards to add th claim the tunnel
      * @throws IllegalArgumentException if:<li> the Route is not a tunnel
      *                                  <li> the number of drawn cards is different of what it has to be
+     *                                  <li> the Route is a sky route (its count is random, see the overload)
      */
     public int additionalClaimCardsCount(SortedBag<Card> claimCards, SortedBag<Card> drawnCards) {
         //Preconditions.checkArgument(drawnCards.size() == Constants.ADDITIONAL_TUNNEL_CARDS);
-        if(level==Level.SKY) return new Random().nextInt(4);
+        Preconditions.checkArgument(level != Level.SKY);
         int additional = 0;
         for (Card drawn : drawnCards) {
             boolean isIn = false;
@@ -197,6 +270,21 @@ public final class Route {
         return additional;
     }
 
+    /**
+     * <b>Compute the number of Card a player need to add to claim the Route</b>
+     * <p>For a sky route, the number is drawn uniformly between 0 and {@value Constants#MAX_ADDITIONAL_SKY_CARDS}
+     * (included) from <i>rng</i>, so that a game can be replayed from its seed.</p>
+     *
+     * @param claimCards card used by the player who tried to claim the Route
+     * @param drawnCards cards drawn by the player
+     * @param rng        splittable random used for sky routes
+     * @return Number of additional cards to add th claim the Route
+     */
+    public int additionalClaimCardsCount(SortedBag<Card> claimCards, SortedBag<Card> drawnCards, SplittableRandom rng) {
+        if (level == Level.SKY) return rng.nextInt(Constants.MAX_ADDITIONAL_SKY_CARDS + 1);
+        return additionalClaimCardsCount(claimCards, drawnCards);
+    }
+
     /**
      * Compute the points a player earn when he claims the Route
      *
@@ -0,0 +1,223 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <b>Class representing the topology of a map, computed once</b>
+ * <p>Stations are designated by their id and routes by their index in the list the graph is built from.
+ * The routes incident to each station and the groups of parallel routes (linking the same two stations)
+ * are stored in compressed arrays: the elements of station (or group) <i>i</i> are at positions
+ * <i>offsets[i]</i> (included) to <i>offsets[i + 1]</i> (excluded) of a single array.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class RouteGraph {
+    private final List<Route> routes;
+    private final int stationCount;
+    //ids of the two stations of each route
+    private final int[] station1, station2;
+    //routes incident to each station
+    private final int[] incidenceOffsets, incidentRoutes;
+    //parallel routes, grouped by pair of stations
+    private final int[] groupOf, groupOffsets, groupRoutes;
+    private final boolean[] isAirport;
+    private final List<Route> skyRoutes;
+
+    /**
+     * Private constructor of a RouteGraph
+     *
+     * @param stationCount number of stations (greater than the biggest id)
+     * @param routes       routes of the graph
+     * @param airports     airports of the graph
+     */
+    private RouteGraph(int stationCount, List<Route> routes, List<Station> airports) {
+        int routeCount = routes.size();
+        this.routes = List.copyOf(routes);
+        this.stationCount = stationCount;
+        this.station1 = new int[routeCount];
+        this.station2 = new int[routeCount];
+        for (int r = 0; r < routeCount; r++) {
+            station1[r] = routes.get(r).station1().id();
+            station2[r] = routes.get(r).station2().id();
+        }
+
+        //incidence, by counting the degree of each station then filling
+        incidenceOffsets = new int[stationCount + 1];
+        for (int r = 0; r < routeCount; r++) {
+            incidenceOffsets[station1[r] + 1]++;
+            incidenceOffsets[station2[r] + 1]++;
+        }
+        for (int s = 0; s < stationCount; s++) incidenceOffsets[s + 1] += incidenceOffsets[s];
+        incidentRoutes = new int[2 * routeCount];
+        int[] next = Arrays.copyOf(incidenceOffsets, stationCount);
+        for (int r = 0; r < routeCount; r++) {
+            incidentRoutes[next[station1[r]]++] = r;
+            incidentRoutes[next[station2[r]]++] = r;
+        }
+
+        //groups of parallel routes, a route joining the group of the first route with the same stations
+        groupOf = new int[routeCount];
+        int groupCount = 0;
+        for (int r = 0; r < routeCount; r++) {
+            int group = -1;
+            for (int i = incidenceOffsets[station1[r]]; i < incidenceOffsets[station1[r] + 1] && group < 0; i++) {
+                int other = incidentRoutes[i];
+                if (other < r && opposite(other, station1[r]) == station2[r]) group = groupOf[other];
+            }
+            if (group < 0) group = groupCount++;
+            groupOf[r] = group;
+        }
+        groupOffsets = new int[groupCount + 1];
+        for (int r = 0; r < routeCount; r++) groupOffsets[groupOf[r] + 1]++;
+        for (int g = 0; g < groupCount; g++) groupOffsets[g + 1] += groupOffsets[g];
+        groupRoutes = new int[routeCount];
+        next = Arrays.copyOf(groupOffsets, groupCount);
+        for (int r = 0; r < routeCount; r++) groupRoutes[next[groupOf[r]]++] = r;
+
+        //airport sub-graph
+        isAirport = new boolean[stationCount];
+        for (Station airport : airports) isAirport[airport.id()] = true;
+        List<Route> sky = new ArrayList<>();
+        for (Route route : routes) {
+            if (route.level() == Route.Level.SKY) sky.add(route);
+        }
+        skyRoutes = List.copyOf(sky);
+    }
+
+    /**
+     * <b>Build the graph of the given routes</b>
+     *
+     * @param stations all the stations of the map
+     * @param routes   all the routes of the map, each route being designated by its index in this list
+     * @param airports the stations which are airports
+     * @return the graph of the map
+     * @throws IllegalArgumentException if a route or an airport has a station which is not in <i>stations</i>
+     */
+    public static RouteGraph of(List<Station> stations, List<Route> routes, List<Station> airports) {
+        int stationCount = 0;
+        for (Station station : stations) stationCount = Math.max(stationCount, station.id() + 1);
+        for (Route route : routes) {
+            Preconditions.checkArgument(route.station1().id() < stationCount && route.station2().id() < stationCount);
+        }
+        for (Station airport : airports) Preconditions.checkArgument(airport.id() < stationCount);
+        return new RouteGraph(stationCount, routes, airports);
+    }
+
+    /**
+     * @return the number of stations, ie the biggest id plus one
+     */
+    public int stationCount() {
+        return stationCount;
+    }
+
+    /**
+     * @return the number of routes
+     */
+    public int routeCount() {
+        return routes.size();
+    }
+
+    /**
+     * @param route index of a route
+     * @return the route of index <i>route</i>
+     */
+    public Route route(int route) {
+        return routes.get(route);
+    }
+
+    /**
+     * @param route index of a route
+     * @return id of the first station of the route
+     */
+    public int station1(int route) {
+        return station1[route];
+    }
+
+    /**
+     * @param route index of a route
+     * @return id of the second station of the route
+     */
+    public int station2(int route) {
+        return station2[route];
+    }
+
+    /**
+     * @param route   index of a route
+     * @param station id of one of the stations of the route
+     * @return id of the other station of the route
+     */
+    public int opposite(int route, int station) {
+        return station1[route] == station ? station2[route] : station1[route];
+    }
+
+    /**
+     * @param station id of a station
+     * @return the number of routes incident to the station
+     */
+    public int degree(int station) {
+        return incidenceOffsets[station + 1] - incidenceOffsets[station];
+    }
+
+    /**
+     * @param station id of a station
+     * @param i       number of the incident route, between 0 (included) and the degree of the station (excluded)
+     * @return the index of the <i>i</i>-th route incident to the station
+     */
+    public int incidentRoute(int station, int i) {
+        return incidentRoutes[incidenceOffsets[station] + Objects.checkIndex(i, degree(station))];
+    }
+
+    /**
+     * @param route index of a route
+     * @return the number of the group of routes linking the same stations as the route
+     */
+    public int parallelGroup(int route) {
+        return groupOf[route];
+    }
+
+    /**
+     * @param group number of a group of parallel routes
+     * @return the number of routes in the group
+     */
+    public int groupSize(int group) {
+        return groupOffsets[group + 1] - groupOffsets[group];
+    }
+
+    /**
+     * @param group number of a group of parallel routes
+     * @param i     number of the route in the group, between 0 (included) and the size of the group (excluded)
+     * @return the index of the <i>i</i>-th route of the group
+     */
+    public int groupRoute(int group, int i) {
+        return groupRoutes[groupOffsets[group] + Objects.checkIndex(i, groupSize(group))];
+    }
+
+    /**
+     * @param route index of a route
+     * @return if another route links the same stations as the route
+     */
+    public boolean hasParallelRoute(int route) {
+        return groupSize(groupOf[route]) > 1;
+    }
+
+    /**
+     * @param station id of a station
+     * @return if the station is an airport
+     */
+    public boolean isAirport(int station) {
+        return isAirport[station];
+    }
+
+    /**
+     * @return the sky routes, which link airports
+     */
+    public List<Route> skyRoutes() {
+        return skyRoutes;
+    }
+}
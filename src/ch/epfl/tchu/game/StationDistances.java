@@ -0,0 +1,300 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * <b>Class giving the distances between all the stations of a map</b>
+ * <p>For each pair of stations, the minimal number of cars and the minimal number of routes needed to link them,
+ * and the first route of a path with the minimal number of cars. Everything is computed once, so each
+ * query is an array access. The routes are designated by their index in the RouteGraph.</p>
+ * <p>Distances are stored by destination: the row of a station contains the distances from all the
+ * stations to it and, for each station, the route to take to get closer to it. A row therefore describes a
+ * tree of shortest paths on its own, and can be computed again without the others.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class StationDistances {
+    /**
+     * Distance between two stations which cannot be linked
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final RouteGraph graph;
+    private final Adjacency adjacency;
+    //routes which cannot be used
+    private final BitSet blocked;
+    //rows indexed by the id of the destination, then by the id of the departure
+    private final int[][] cars, hops, nextRoute;
+
+    /**
+     * <b>Adjacency of the graph, copied once in arrays of primitives</b>
+     * <p>The (<i>i</i>)-th neighbour of a station is reached with the route <i>routes[i]</i> of length
+     * <i>lengths[i]</i>, for <i>i</i> between <i>offsets[station]</i> (included) and <i>offsets[station + 1]</i> (excluded).</p>
+     */
+    private static final class Adjacency {
+        private final int stationCount;
+        private final int[] offsets, neighbours, routes, lengths;
+        private final int maxLength;
+
+        private Adjacency(RouteGraph graph) {
+            stationCount = graph.stationCount();
+            offsets = new int[stationCount + 1];
+            for (int s = 0; s < stationCount; s++) offsets[s + 1] = offsets[s] + graph.degree(s);
+            neighbours = new int[offsets[stationCount]];
+            routes = new int[offsets[stationCount]];
+            lengths = new int[offsets[stationCount]];
+            for (int s = 0; s < stationCount; s++) {
+                for (int i = 0; i < graph.degree(s); i++) {
+                    int route = graph.incidentRoute(s, i);
+                    neighbours[offsets[s] + i] = graph.opposite(route, s);
+                    routes[offsets[s] + i] = route;
+                    lengths[offsets[s] + i] = graph.route(route).length();
+                }
+            }
+            maxLength = Arrays.stream(lengths).max().orElse(0);
+        }
+    }
+
+    /**
+     * Private constructor of a StationDistances
+     * the arrays are not copied and must never be modified afterwards (rows can be shared between instances)
+     *
+     * @param graph     the graph of the map
+     * @param adjacency the adjacency of <i>graph</i>
+     * @param blocked   routes which cannot be used
+     * @param cars      minimal number of cars between the stations
+     * @param hops      minimal number of routes between the stations
+     * @param nextRoute first route of a path with the minimal number of cars, -1 if there is none
+     */
+    private StationDistances(RouteGraph graph, Adjacency adjacency, BitSet blocked, int[][] cars, int[][] hops, int[][] nextRoute) {
+        this.graph = graph;
+        this.adjacency = adjacency;
+        this.blocked = blocked;
+        this.cars = cars;
+        this.hops = hops;
+        this.nextRoute = nextRoute;
+    }
+
+    /**
+     * <b>Compute the distances between all the stations of a graph</b>
+     *
+     * @param graph the graph of the map
+     * @return the distances between the stations of <i>graph</i>, with all the routes
+     */
+    public static StationDistances of(RouteGraph graph) {
+        int n = graph.stationCount();
+        Adjacency adjacency = new Adjacency(graph);
+        BitSet blocked = new BitSet(graph.routeCount());
+        int[][] cars = new int[n][], hops = new int[n][], nextRoute = new int[n][];
+        for (int to = 0; to < n; to++) computeRow(adjacency, blocked, to, cars, hops, nextRoute);
+        return new StationDistances(graph, adjacency, blocked, cars, hops, nextRoute);
+    }
+
+    /**
+     * @param from departure station
+     * @param to   arrival station
+     * @return the minimal number of cars needed to link the stations, {@value #UNREACHABLE} if they cannot be linked
+     */
+    public int cars(Station from, Station to) {
+        return cars[to.id()][from.id()];
+    }
+
+    /**
+     * @param from departure station
+     * @param to   arrival station
+     * @return the minimal number of routes needed to link the stations, {@value #UNREACHABLE} if they cannot be linked
+     */
+    public int hops(Station from, Station to) {
+        return hops[to.id()][from.id()];
+    }
+
+    /**
+     * @param from departure station
+     * @param to   arrival station
+     * @return the first route of a path between the stations with the minimal number of cars,
+     * null if the stations are the same or cannot be linked
+     */
+    public Route nextRoute(Station from, Station to) {
+        int route = nextRoute[to.id()][from.id()];
+        return route < 0 ? null : graph.route(route);
+    }
+
+    /**
+     * @param from departure station
+     * @param to   arrival station
+     * @return the routes of a path between the stations with the minimal number of cars, in order,
+     * empty if the stations are the same or cannot be linked
+     */
+    public List<Route> path(Station from, Station to) {
+        int[] row = nextRoute[to.id()];
+        List<Route> path = new ArrayList<>();
+        int station = from.id();
+        while (row[station] >= 0) {
+            path.add(graph.route(row[station]));
+            station = graph.opposite(row[station], station);
+        }
+        return path;
+    }
+
+    /**
+     * @param route a route of the graph
+     * @return if <i>route</i> cannot be used
+     * @throws IllegalArgumentException if <i>route</i> is not a route of the map
+     */
+    public boolean isBlocked(Route route) {
+        Preconditions.checkArgument(route.index() >= 0);
+        return blocked.get(route.index());
+    }
+
+    /**
+     * <b>Compute the distances when some routes cannot be used anymore</b>
+     *
+     * @param routes routes of the graph which cannot be used anymore (for example claimed by the opponent)
+     * @return distances identical to these, except that neither <i>routes</i> nor the already blocked routes are used
+     * @throws IllegalArgumentException if one of the <i>routes</i> is not a route of the map
+     * @see #withBlockedRoutes(BitSet)
+     */
+    public StationDistances withBlockedRoutes(List<Route> routes) {
+        BitSet indexes = new BitSet(graph.routeCount());
+        for (Route route : routes) {
+            Preconditions.checkArgument(route.index() >= 0);
+            indexes.set(route.index());
+        }
+        return withBlockedRoutes(indexes);
+    }
+
+    /**
+     * <b>Compute the distances when some routes cannot be used anymore</b>
+     * <p>Only the rows of the destinations whose shortest paths may use one of the new blocked routes
+     * are computed again, in parallel. The other rows are shared with this instance.</p>
+     *
+     * @param routes indexes of the routes of the graph which cannot be used anymore
+     * @return distances identical to these, except that neither <i>routes</i> nor the already blocked routes are used
+     */
+    public StationDistances withBlockedRoutes(BitSet routes) {
+        BitSet newBlocked = (BitSet) routes.clone();
+        newBlocked.andNot(blocked);
+        if (newBlocked.isEmpty()) return this;
+        BitSet allBlocked = (BitSet) blocked.clone();
+        allBlocked.or(newBlocked);
+
+        int n = graph.stationCount();
+        int[][] newCars = cars.clone(), newHops = hops.clone(), newNextRoute = nextRoute.clone();
+        IntStream.range(0, n)
+                .filter(to -> mayUseOneOf(to, newBlocked))
+                .parallel()
+                .forEach(to -> computeRow(adjacency, allBlocked, to, newCars, newHops, newNextRoute));
+        return new StationDistances(graph, adjacency, allBlocked, newCars, newHops, newNextRoute);
+    }
+
+    /**
+     * Compute if a shortest path to a station may use one of the given routes, ie if one of the routes
+     * is exactly as long as the difference between the distances of its stations
+     *
+     * @param to     id of the destination
+     * @param routes indexes of routes
+     * @return if the row of <i>to</i> may change when <i>routes</i> are blocked
+     */
+    private boolean mayUseOneOf(int to, BitSet routes) {
+        int[] carRow = cars[to], hopRow = hops[to];
+        for (int r = routes.nextSetBit(0); r >= 0; r = routes.nextSetBit(r + 1)) {
+            int s1 = graph.station1(r), s2 = graph.station2(r);
+            if (carRow[s1] == UNREACHABLE) continue;
+            int length = graph.route(r).length();
+            if (Math.abs(carRow[s1] - carRow[s2]) == length || Math.abs(hopRow[s1] - hopRow[s2]) == 1) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Compute the distances from all the stations to one station, with Dijkstra's algorithm for the cars
+     * and a breadth-first search for the routes
+     *
+     * @param adjacency the adjacency of the graph
+     * @param blocked   routes which cannot be used
+     * @param to        id of the destination
+     * @param cars      rows of the number of cars, the row of <i>to</i> being replaced
+     * @param hops      rows of the number of routes, the row of <i>to</i> being replaced
+     * @param nextRoute rows of the next routes, the row of <i>to</i> being replaced
+     */
+    private static void computeRow(Adjacency adjacency, BitSet blocked, int to, int[][] cars, int[][] hops, int[][] nextRoute) {
+        int n = adjacency.stationCount;
+        int[] offsets = adjacency.offsets, neighbours = adjacency.neighbours, routes = adjacency.routes, lengths = adjacency.lengths;
+        //the blocked routes of the neighbourhood, to avoid querying the BitSet in the loops
+        boolean[] usable = new boolean[routes.length];
+        for (int i = 0; i < routes.length; i++) usable[i] = !blocked.get(routes[i]);
+
+        int[] carRow = new int[n], hopRow = new int[n], nextRow = new int[n];
+        Arrays.fill(carRow, UNREACHABLE);
+        Arrays.fill(hopRow, UNREACHABLE);
+        Arrays.fill(nextRow, -1);
+        carRow[to] = 0;
+        hopRow[to] = 0;
+
+        //Dial's algorithm: the routes being short, the stations to visit are kept in lists by distance modulo
+        //the number of lists, all the distances of the stations to visit being between the current one and
+        //the current one plus the maximal length of a route
+        int bucketCount = adjacency.maxLength + 1;
+        int[] heads = new int[bucketCount], next = new int[n], previous = new int[n];
+        Arrays.fill(heads, -1);
+        insert(to, 0, heads, next, previous);
+        int waiting = 1;
+        for (int current = 0; waiting > 0; current++) {
+            int bucket = current % bucketCount;
+            while (heads[bucket] >= 0) {
+                int station = heads[bucket];
+                remove(station, bucket, heads, next, previous);
+                waiting--;
+                for (int i = offsets[station]; i < offsets[station + 1]; i++) {
+                    int other = neighbours[i], distance = current + lengths[i];
+                    if (usable[i] && distance < carRow[other]) {
+                        if (carRow[other] == UNREACHABLE) waiting++;
+                        else remove(other, carRow[other] % bucketCount, heads, next, previous);
+                        carRow[other] = distance;
+                        nextRow[other] = routes[i];
+                        insert(other, distance % bucketCount, heads, next, previous);
+                    }
+                }
+            }
+        }
+
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        queue[tail++] = to;
+        while (head < tail) {
+            int station = queue[head++];
+            for (int i = offsets[station]; i < offsets[station + 1]; i++) {
+                if (usable[i] && hopRow[neighbours[i]] == UNREACHABLE) {
+                    hopRow[neighbours[i]] = hopRow[station] + 1;
+                    queue[tail++] = neighbours[i];
+                }
+            }
+        }
+
+        cars[to] = carRow;
+        hops[to] = hopRow;
+        nextRoute[to] = nextRow;
+    }
+
+    //adds a station at the beginning of a list of stations
+    private static void insert(int station, int bucket, int[] heads, int[] next, int[] previous) {
+        next[station] = heads[bucket];
+        previous[station] = -1;
+        if (heads[bucket] >= 0) previous[heads[bucket]] = station;
+        heads[bucket] = station;
+    }
+
+    //removes a station from the list it is in
+    private static void remove(int station, int bucket, int[] heads, int[] next, int[] previous) {
+        if (previous[station] >= 0) next[previous[station]] = next[station];
+        else heads[bucket] = next[station];
+        if (next[station] >= 0) previous[next[station]] = previous[station];
+    }
+}
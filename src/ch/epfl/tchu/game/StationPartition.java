@@ -3,6 +3,8 @@ package ch.epfl.tchu.game;
 
 import ch.epfl.tchu.Preconditions;
 
+import java.util.Arrays;
+
 
 /**
  * <b>Class representing the station parition of a player</b>
@@ -12,24 +14,44 @@ import ch.epfl.tchu.Preconditions;
  * @author Ménélik Nouvellon (328132)
  */
 public final class StationPartition implements StationConnectivity {
-    private final int[] representative;
-
-    /**
-     * <b>Getter for the array of station and their representative</b>
-     * @return the array of station representatives
-     */
-    private int[] representative() {
-        return representative;
-    }
+    //the stations are stored by chunks of CHUNK_SIZE ids, which partitions share as long as none of them changes it
+    private static final int CHUNK_SHIFT = 3;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    //node of each station in the tree of its subset: the id of its parent, or -(rank + 1) for the representative
+    //of the subset, its rank being an upper bound of the height of the tree
+    private final int[][] nodes;
+    private final int stationCount;
+    //stations of the subset of each station, one bit per station id, only computed when asked for
+    //volatile so that a thread never sees the arrays before they are filled
+    private volatile long[][] subsets;
 
     /**
      * Private builder of a Station partition
      *
-     * @param representative array of station(the id is the index of the array) and their representative(value stored at the index)
+     * @param nodes        nodes of the stations, by chunks of CHUNK_SIZE ids
+     * @param stationCount number of stations in the partition, whose ids go from 0 to stationCount - 1
      */
 
-    private StationPartition(int[] representative) {
-        this.representative = representative;
+    private StationPartition(int[][] nodes, int stationCount) {
+        this.nodes = nodes;
+        this.stationCount = stationCount;
+    }
+
+    //chunks of the given number of stations, each station being alone in its subset
+    private static int[][] singletons(int stationCount) {
+        int[][] nodes = new int[(stationCount + CHUNK_SIZE - 1) >>> CHUNK_SHIFT][CHUNK_SIZE];
+        for (int[] chunk : nodes) Arrays.fill(chunk, -1);
+        return nodes;
+    }
+
+    private static int node(int[][] nodes, int id) {
+        return nodes[id >>> CHUNK_SHIFT][id & (CHUNK_SIZE - 1)];
+    }
+
+    //follows the parents up to the representative, the trees being of logarithmic height
+    private static int representativeOf(int[][] nodes, int id) {
+        for (int parent = node(nodes, id); parent >= 0; parent = node(nodes, id)) id = parent;
+        return id;
     }
 
 
@@ -43,9 +65,82 @@ public final class StationPartition implements StationConnectivity {
      */
     @Override
     public boolean connected(Station s1, Station s2) {
-        return (s1.id() < representative.length && s2.id() < representative.length)//if the station id is in the array
-                ?representative[s1.id()] == representative[s2.id()]
-                :s1.id() == s2.id();//if not in the array, only way to be connected is the case in witch both stations are the same
+        return (s1.id() < stationCount && s2.id() < stationCount)//if the station id is in the partition
+                ?representativeOf(nodes, s1.id()) == representativeOf(nodes, s2.id())
+                :s1.id() == s2.id();//if not in the partition, only way to be connected is the case in witch both stations are the same
+    }
+
+    /**
+     * Compute if a station is connected to at least one of the stations of a set
+     *
+     * @param id       id of the station
+     * @param stations set of station ids, one bit per id (bit <i>i % 64</i> of <i>stations[i / 64]</i>)
+     * @return if the station is in the same subset as one of the stations of the set
+     */
+    boolean connectedToAny(int id, long[] stations) {
+        if (id >= stationCount) {
+            //a station which is not in the partition is only connected to itself
+            return (id >>> 6) < stations.length && (stations[id >>> 6] & (1L << id)) != 0;
+        }
+        long[][] allSubsets = subsets;
+        if (allSubsets == null) {
+            allSubsets = computeSubsets();
+            subsets = allSubsets;
+        }
+        long[] subset = allSubsets[id];
+        for (int w = Math.min(subset.length, stations.length) - 1; w >= 0; w--) {
+            if ((subset[w] & stations[w]) != 0) return true;
+        }
+        return false;
+    }
+
+    private long[][] computeSubsets() {
+        int words = (stationCount + Long.SIZE - 1) / Long.SIZE;
+        long[][] ofRepresentative = new long[stationCount][];
+        long[][] ofStation = new long[stationCount][];
+        for (int i = 0; i < stationCount; i++) {
+            int r = representativeOf(nodes, i);
+            if (ofRepresentative[r] == null) ofRepresentative[r] = new long[words];
+            ofRepresentative[r][i >>> 6] |= 1L << i;
+            ofStation[i] = ofRepresentative[r];
+        }
+        return ofStation;
+    }
+
+    /**
+     * <b>Connect two stations in a new partition</b>
+     * <p>The tree of lowest rank is attached under the representative of the other one. Only the chunks of the
+     * nodes which change are copied, the other ones being shared with this partition, which is not modified.</p>
+     *
+     * @param s1 First station
+     * @param s2 Second station
+     * @return a partition identical to this one, except that the subsets of both stations are merged
+     */
+    public StationPartition withConnected(Station s1, Station s2) {
+        if (connected(s1, s2)) return this;
+
+        //stations which are not in the partition yet are alone in their subset
+        int count = Math.max(stationCount, Math.max(s1.id(), s2.id()) + 1);
+        int[][] newNodes = Arrays.copyOf(nodes, (count + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+        int[][] added = singletons((newNodes.length - nodes.length) << CHUNK_SHIFT);
+        System.arraycopy(added, 0, newNodes, nodes.length, added.length);
+
+        int r1 = representativeOf(newNodes, s1.id()), r2 = representativeOf(newNodes, s2.id());
+        int rank1 = -node(newNodes, r1) - 1, rank2 = -node(newNodes, r2) - 1;
+        if (rank1 < rank2) {
+            setNode(newNodes, r1, r2);
+        } else {
+            setNode(newNodes, r2, r1);
+            if (rank1 == rank2) setNode(newNodes, r1, -(rank1 + 2));
+        }
+        return new StationPartition(newNodes, count);
+    }
+
+    //sets the node of a station in the new chunks, copying its chunk if it is still shared with this partition
+    private void setNode(int[][] newNodes, int id, int node) {
+        int chunk = id >>> CHUNK_SHIFT;
+        if (chunk < nodes.length && newNodes[chunk] == nodes[chunk]) newNodes[chunk] = nodes[chunk].clone();
+        newNodes[chunk][id & (CHUNK_SIZE - 1)] = node;
     }
 
     /**
@@ -53,6 +148,8 @@ public final class StationPartition implements StationConnectivity {
      */
     public static final class Builder {
         private int[] representative;
+        //upper bound of the height of the tree of each representative
+        private final int[] rank;
 
         /**
          * <b>Constructor of a StationPartitionBuilder</b>
@@ -64,6 +161,7 @@ public final class StationPartition implements StationConnectivity {
         public Builder(int stationCount) {
             Preconditions.checkArgument(stationCount >= 0);
             representative = new int[stationCount + 1];
+            rank = new int[stationCount + 1];
             for (int i = 0; i <= stationCount; i++) {
                 representative[i] = i;
             }
@@ -79,17 +177,16 @@ public final class StationPartition implements StationConnectivity {
          * @return the builder with a connection between both stations
          */
         public Builder connect(Station s1, Station s2) {
+            int r1 = representative(s1.id()), r2 = representative(s2.id());
             //If both stations already have the same representative you don't need to link them another time
-            if ((representative(s1.id()) != representative(s2.id()))) {
-                //To avoid that a station pointing to a station can change its reference station and avoid loops
-                if (representative[s2.id()] == s2.id())
-                    representative[s2.id()] = s1.id();
-                    //If both stations are already connected to an other one it choose one of the representative as the representative of both subsets
-                 else if (representative[s2.id()] != s2.id() && representative[s1.id()] != s1.id())
-                    representative[representative(s2.id())] = representative[representative(s1.id())];
-                else if (representative[s1.id()] == s1.id())
-                    representative[s1.id()] = s2.id();
-
+            if (r1 != r2) {
+                //the lowest tree is attached under the root of the highest one, so trees stay flat
+                if (rank[r1] < rank[r2]) {
+                    representative[r1] = r2;
+                } else {
+                    representative[r2] = r1;
+                    if (rank[r1] == rank[r2]) rank[r1]++;
+                }
             }
             return this;
         }
@@ -100,11 +197,16 @@ public final class StationPartition implements StationConnectivity {
          * @return a StationPartition in a flattened version
          */
         public StationPartition build() {
-            int[] finalrepresentative = new int[representative.length];
+            int[][] nodes = singletons(representative.length);
             for (int i = 0; i < representative.length; i++) {
-                finalrepresentative[i] = representative(i);
+                int r = representative(i);
+                if (r != i) {
+                    //every station is attached directly to its representative, whose tree is of rank 1
+                    nodes[i >>> CHUNK_SHIFT][i & (CHUNK_SIZE - 1)] = r;
+                    nodes[r >>> CHUNK_SHIFT][r & (CHUNK_SIZE - 1)] = -2;
+                }
             }
-            return new StationPartition(finalrepresentative);
+            return new StationPartition(nodes, representative.length);
         }
 
         /**
@@ -113,13 +215,12 @@ public final class StationPartition implements StationConnectivity {
          * @return the representative of the station
          */
         private int representative(int id) {
-            int v1,v2 = id;
-            do {
-                v1 = v2;
-                v2 = representative[v1];
-            }while (v1 != v2);
-
-            return v1;
+            //path halving: each visited station is attached to its grandparent
+            while (representative[id] != id) {
+                representative[id] = representative[representative[id]];
+                id = representative[id];
+            }
+            return id;
         }
 
     }
@@ -2,6 +2,7 @@ package ch.epfl.tchu.game;
 
 import ch.epfl.tchu.Preconditions;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.TreeSet;
 
@@ -15,6 +16,13 @@ import java.util.TreeSet;
 public final class Ticket implements Comparable<Ticket> {
     List<Trip> trips;
     private final String text;
+    //trips grouped by departure and points, by decreasing points: group i goes from station fromIds[i]
+    //to one of the stations of toStations[i] (one bit per station id) for tripPoints[i] points
+    private final int[] fromIds, tripPoints;
+    private final long[][] toStations;
+    private final int minPoints;
+    //position in ChMap.tickets() of the first occurrence of the ticket, -1 for a ticket which is not on the map
+    private final int index;
 
     /**
      * <b>Constructor of a Ticket</b>
@@ -28,6 +36,44 @@ public final class Ticket implements Comparable<Ticket> {
         }
         this.trips = List.copyOf(trips);
         text = computeText(trips);
+        index = -1;
+
+        List<Trip> byPoints = new ArrayList<>(this.trips);
+        byPoints.sort((t1, t2) -> Integer.compare(t2.points(), t1.points()));
+        List<Integer> groupFrom = new ArrayList<>(), groupPoints = new ArrayList<>();
+        List<long[]> groupTo = new ArrayList<>();
+        int words = 0;
+        for (Trip trip : byPoints) words = Math.max(words, trip.to().id() / Long.SIZE + 1);
+        for (Trip trip : byPoints) {
+            int last = groupFrom.size() - 1;
+            if (last < 0 || groupFrom.get(last) != trip.from().id() || groupPoints.get(last) != trip.points()) {
+                groupFrom.add(trip.from().id());
+                groupPoints.add(trip.points());
+                groupTo.add(new long[words]);
+                last++;
+            }
+            groupTo.get(last)[trip.to().id() >>> 6] |= 1L << trip.to().id();
+        }
+        fromIds = groupFrom.stream().mapToInt(Integer::intValue).toArray();
+        tripPoints = groupPoints.stream().mapToInt(Integer::intValue).toArray();
+        toStations = groupTo.toArray(new long[0][]);
+        minPoints = byPoints.get(byPoints.size() - 1).points();
+    }
+
+    /**
+     * <b>Private constructor copying a Ticket with a new index</b>
+     *
+     * @param ticket the ticket to copy
+     * @param index  index of the copy
+     */
+    private Ticket(Ticket ticket, int index) {
+        this.trips = ticket.trips;
+        this.text = ticket.text;
+        this.fromIds = ticket.fromIds;
+        this.tripPoints = ticket.tripPoints;
+        this.toStations = ticket.toStations;
+        this.minPoints = ticket.minPoints;
+        this.index = index;
     }
 
     /**
@@ -49,6 +95,7 @@ public final class Ticket implements Comparable<Ticket> {
      * @return the number of points of a Ticket
      */
     public int points(StationConnectivity connectivity) {
+        if (connectivity instanceof StationPartition) return points((StationPartition) connectivity);
         int points = 0;
         int min = trips.get(0).points();
         for (Trip trip : trips) {
@@ -58,6 +105,20 @@ public final class Ticket implements Comparable<Ticket> {
         return points == 0 ? -min : points ;
     }
 
+    /**
+     * Compute the points of the ticket with the precompiled trips, the first connected group
+     * being the one which brings the most points
+     *
+     * @param partition the partition of the stations linked by the player
+     * @return the number of points of a Ticket
+     */
+    private int points(StationPartition partition) {
+        for (int i = 0; i < fromIds.length; i++) {
+            if (partition.connectedToAny(fromIds[i], toStations[i])) return tripPoints[i];
+        }
+        return -minPoints;
+    }
+
     /**
      *<b>Call a private method to compute The textual representation of a Ticket</b>
      * <p>Different representation if it's:
@@ -89,6 +150,25 @@ public final class Ticket implements Comparable<Ticket> {
     }
 
 
+    /**
+     * @param index the index of the ticket in ChMap.tickets()
+     * @return the same ticket with the given index
+     */
+    Ticket withIndex(int index) {
+        Preconditions.checkArgument(index >= 0);
+        return new Ticket(this, index);
+    }
+
+    /**
+     * <b>Getter of the Ticket's index</b>
+     * <p>Tickets of the map are numbered by their (first) position in <i>ChMap.tickets()</i>.</p>
+     *
+     * @return index of the ticket, -1 if it is not a ticket of the map
+     */
+    public int index() {
+        return index;
+    }
+
     public List<Trip> getTrips(){
         return trips;
     }
@@ -99,13 +179,17 @@ public final class Ticket implements Comparable<Ticket> {
 
     /**
      *<b>Redefinition of the method compareTo of Object</b>
+     * <p>The tickets of the map come before the other ones; two tickets of the map are compared by index,
+     * two other tickets by text.</p>
      *
      * @param that Ticket you want to compare with this Ticket
-     *
      * @return result of comparison ( negative if this < that, positive if this > that and 0 is this == that )
      */
     @Override
     public int compareTo(Ticket that) {
+        //a single order over both groups, so that it stays transitive when they are mixed
+        if (index >= 0 && that.index >= 0) return Integer.compare(index, that.index);
+        if (index >= 0 || that.index >= 0) return index >= 0 ? -1 : 1;
         return this.text.compareTo(that.text());
     }
 
@@ -1,7 +1,6 @@
 package ch.epfl.tchu.game;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * <b>Class representing a Trail</b>
@@ -58,6 +57,9 @@ public final class Trail {
 
     /**
      * <b>Compute the longest Trail made of a list of Route</b>
+     * <p>Depth-first search from every station, each route being used at most once per trail.
+     * Only the routes of the best trail found so far are kept, and a branch is abandoned as soon as
+     * the routes which are still unused cannot make it longer than this best trail.</p>
      *
      * @param routes a list of Route
      * @return the longest Trail made of the routes of the given list <i>routes</i>
@@ -65,53 +67,120 @@ public final class Trail {
     public static Trail longest(List<Route> routes) {
         //case when the list routes is empty
         if (routes.size() == 0) return EMPTY_TRAIL;
-        List<Trail> oneRoute = new ArrayList<>();
-        //Variable representing the longest Trail, initialised with a Trail made of the first route of 'routes'
-        Trail maxLengthTrail = new Trail(routes.get(0).length(), routes.get(0).station1(), routes.get(0).station2(), List.of(routes.get(0)));
-
-        //Iterate on 'routes' to create a list of Trails made of each Route (in both ways)
-        for (Route route : routes) {
-            Trail Trail1 = new Trail(route.length(), route.station1(), route.station2(), List.of(route));
-            oneRoute.add(Trail1);
-            if (Trail1.length() > maxLengthTrail.length()) maxLengthTrail = Trail1;
-            Trail Trail2 = new Trail(route.length(), route.station2(), route.station1(), List.of(route));
-            oneRoute.add(Trail2);
+        Search search = new Search(routes);
+        for (int station = 0; station < search.stationCount; station++) {
+            search.explore(station, station, 0, 0);
         }
+        return search.best();
+    }
 
-        //for each iteration of the while loop, the number of route per Trail increase by 1
-        //it stop when it's impossible to add a new Route to a trail for the previous iteration
-        while (oneRoute.size() != 0) {
-            List<Trail> aux = new ArrayList<>();
-
-            //For each trail, iterate in routes to know if you can add them at the end of the Trail
-            for (Trail tr : oneRoute) {
-                for (Route route : routes) {
+    /**
+     * <b>State of the depth-first search of the longest trail</b>
+     * <p>Stations are renumbered from 0 and the routes incident to each station are stored in
+     * compressed arrays, the routes of station <i>s</i> being at positions <i>offsets[s]</i> (included)
+     * to <i>offsets[s + 1]</i> (excluded) of <i>incidentRoutes</i>.</p>
+     */
+    private static final class Search {
+        private final List<Route> routes;
+        private final int stationCount;
+        private final int[] station1, station2, offsets, incidentRoutes;
+        //routes used by the current trail, one bit per route
+        private final long[] used;
+        private final int[] path, bestPath;
+        private int remainingLength, bestLength, bestDepth, bestStart;
+
+        private Search(List<Route> routes) {
+            this.routes = routes;
+            int routeCount = routes.size();
+
+            //local number of each station
+            Map<Station, Integer> localIds = new LinkedHashMap<>();
+            station1 = new int[routeCount];
+            station2 = new int[routeCount];
+            for (int r = 0; r < routeCount; r++) {
+                Route route = routes.get(r);
+                station1[r] = localIds.computeIfAbsent(route.station1(), s -> localIds.size());
+                station2[r] = localIds.computeIfAbsent(route.station2(), s -> localIds.size());
+                remainingLength += route.length();
+            }
+            stationCount = localIds.size();
 
-                    if (!(tr.routes.contains(route))) {
-                        List<Route> copy = new ArrayList<>(tr.routes);
-                        Trail addTrail ;
+            offsets = new int[stationCount + 1];
+            for (int r = 0; r < routeCount; r++) {
+                offsets[station1[r] + 1]++;
+                offsets[station2[r] + 1]++;
+            }
+            for (int s = 0; s < stationCount; s++) offsets[s + 1] += offsets[s];
+            incidentRoutes = new int[2 * routeCount];
+            int[] next = Arrays.copyOf(offsets, stationCount);
+            for (int r = 0; r < routeCount; r++) {
+                incidentRoutes[next[station1[r]]++] = r;
+                incidentRoutes[next[station2[r]]++] = r;
+            }
 
+            used = new long[(routeCount + Long.SIZE - 1) / Long.SIZE];
+            path = new int[routeCount];
+            bestPath = new int[routeCount];
 
+            //like before, the first route alone is the initial best trail
+            bestLength = routes.get(0).length();
+            bestPath[0] = 0;
+            bestDepth = 1;
+            bestStart = station1[0];
+        }
 
-                        for (Station s : route.stations()) {
-                            if (tr.station2 == s) {
-                                copy.add(route);
-                                addTrail = new Trail(tr.length() + route.length(), tr.station1(), route.stationOpposite(s), copy);
-                                aux.add(addTrail);
-                                if (addTrail.length() > maxLengthTrail.length()) maxLengthTrail = addTrail;
+        /**
+         * Extend the current trail by every unused route incident to its end
+         *
+         * @param start  local number of the first station of the current trail
+         * @param end    local number of the last station of the current trail
+         * @param depth  number of routes of the current trail
+         * @param length length of the current trail
+         */
+        private void explore(int start, int end, int depth, int length) {
+            if (length > bestLength) {
+                bestLength = length;
+                bestDepth = depth;
+                bestStart = start;
+                System.arraycopy(path, 0, bestPath, 0, depth);
+            }
+            //even with all the unused routes, the trail could not become longer than the best one
+            if (length + remainingLength <= bestLength) return;
+
+            for (int i = offsets[end]; i < offsets[end + 1]; i++) {
+                int r = incidentRoutes[i];
+                long bit = 1L << r;
+                if ((used[r >>> 6] & bit) != 0) continue;
+
+                int routeLength = routes.get(r).length();
+                used[r >>> 6] |= bit;
+                remainingLength -= routeLength;
+                path[depth] = r;
+                explore(start, station1[r] == end ? station2[r] : station1[r], depth + 1, length + routeLength);
+                remainingLength += routeLength;
+                used[r >>> 6] &= ~bit;
+            }
+        }
 
-                            }
-                        }
-                    }
+        /**
+         * @return the best trail found
+         */
+        private Trail best() {
+            List<Route> trailRoutes = new ArrayList<>(bestDepth);
+            Station first = null, station = null;
+            for (int i = 0; i < bestDepth; i++) {
+                Route route = routes.get(bestPath[i]);
+                if (i == 0) {
+                    first = station1[bestPath[0]] == bestStart ? route.station1() : route.station2();
+                    station = first;
                 }
+                trailRoutes.add(route);
+                station = route.stationOpposite(station);
             }
-            //the list with Trail of 1 more route become the new base list
-            oneRoute = aux;
+            return new Trail(bestLength, first, station, List.copyOf(trailRoutes));
         }
-        return maxLengthTrail;
     }
 
-
     /**
      * Redefinition of the method toString for a Trail
      *
@@ -0,0 +1,138 @@
+package ch.epfl.tchu.game;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * <b>Class keeping the longest trail of a growing set of routes</b>
+ * <p>The routes are split in connected components, each one knowing its longest trail.
+ * When a route is added, only the component(s) it touches are merged and searched again,
+ * the other components keeping their result. A TrailTracker is immutable.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class TrailTracker {
+    private static final TrailTracker EMPTY = new TrailTracker(List.of());
+
+    private final List<Component> components;
+    //index in components of the component with the longest trail, -1 if there is no route
+    private final int longestComponent;
+
+    /**
+     * <b>Connected component of the routes, with its longest trail</b>
+     */
+    private static final class Component {
+        private final List<Route> routes;
+        //ids of the stations of the component
+        private final BitSet stations;
+        private final Trail longest;
+
+        private Component(List<Route> routes, BitSet stations) {
+            this.routes = List.copyOf(routes);
+            this.stations = stations;
+            this.longest = Trail.longest(this.routes);
+        }
+
+        private boolean contains(Station station) {
+            return stations.get(station.id());
+        }
+    }
+
+    /**
+     * Private constructor of a TrailTracker
+     *
+     * @param components connected components of the routes
+     */
+    private TrailTracker(List<Component> components) {
+        this.components = components;
+        int longest = -1;
+        for (int i = 0; i < components.size(); i++) {
+            if (longest < 0 || components.get(i).longest.length() > components.get(longest).longest.length()) longest = i;
+        }
+        this.longestComponent = longest;
+    }
+
+    /**
+     * @return a TrailTracker without any route
+     */
+    public static TrailTracker empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param routes the routes to track
+     * @return a TrailTracker of the given routes, each connected component being searched once
+     */
+    public static TrailTracker of(List<Route> routes) {
+        List<List<Route>> componentRoutes = new ArrayList<>();
+        List<BitSet> componentStations = new ArrayList<>();
+        for (Route route : routes) {
+            List<Route> merged = new ArrayList<>();
+            BitSet stations = new BitSet();
+            for (int i = componentStations.size() - 1; i >= 0; i--) {
+                if (touches(componentStations.get(i), route)) {
+                    merged.addAll(componentRoutes.remove(i));
+                    stations.or(componentStations.remove(i));
+                }
+            }
+            merged.add(route);
+            stations.set(route.station1().id());
+            stations.set(route.station2().id());
+            componentRoutes.add(merged);
+            componentStations.add(stations);
+        }
+
+        List<Component> components = new ArrayList<>(componentRoutes.size());
+        for (int i = 0; i < componentRoutes.size(); i++) {
+            components.add(new Component(componentRoutes.get(i), componentStations.get(i)));
+        }
+        return new TrailTracker(List.copyOf(components));
+    }
+
+    /**
+     * <b>Add a route to the tracked ones</b>
+     *
+     * @param route the new route
+     * @return a TrailTracker of the routes of this one and <i>route</i>,
+     * in which only the component of <i>route</i> has been searched
+     */
+    public TrailTracker withRoute(Route route) {
+        List<Component> newComponents = new ArrayList<>(components.size() + 1);
+        List<Route> merged = new ArrayList<>();
+        BitSet stations = new BitSet();
+        for (Component component : components) {
+            if (component.contains(route.station1()) || component.contains(route.station2())) {
+                merged.addAll(component.routes);
+                stations.or(component.stations);
+            } else {
+                newComponents.add(component);
+            }
+        }
+        merged.add(route);
+        stations.set(route.station1().id());
+        stations.set(route.station2().id());
+        newComponents.add(new Component(merged, stations));
+        return new TrailTracker(List.copyOf(newComponents));
+    }
+
+    /**
+     * @return the longest trail of the tracked routes
+     */
+    public Trail longest() {
+        return longestComponent < 0 ? Trail.longest(List.of()) : components.get(longestComponent).longest;
+    }
+
+    /**
+     * @return the length of the longest trail of the tracked routes
+     */
+    public int longestLength() {
+        return longest().length();
+    }
+
+    //if one of the stations of the route is in the set
+    private static boolean touches(BitSet stations, Route route) {
+        return stations.get(route.station1().id()) || stations.get(route.station2().id());
+    }
+}
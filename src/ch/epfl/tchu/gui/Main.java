@@ -238,11 +238,18 @@ public class Main extends Application {
 
                     cffAudio.setMicrosecondPosition(0);
                     cffAudio.start();
+                    RemotePlayerProxy proxy = new RemotePlayerProxy(socket);
                     Map<PlayerId, Player> players =
                             Map.of(PLAYER_1, new GraphicalPlayerAdapter(),
-                                    PLAYER_2, new RemotePlayerProxy(socket));
-                    new Thread(() -> Game.play(players, playerNames, tickets, rng))
-                            .start();
+                                    PLAYER_2, proxy);
+                    //the connection is closed at the end of the game, once its last messages are sent
+                    new Thread(() -> {
+                        try (proxy) {
+                            Game.play(players, playerNames, tickets, rng);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }).start();
 
                 } catch (IOException e) {
                     e.printStackTrace();
@@ -25,7 +25,8 @@ public class ObservableGameState {
     private final List<ObjectProperty<Card>> cardStateFUC;
 
     private final ObjectProperty<PlayerId> gameCurrentPlayerId, gameLastPlayer;
-    private final Map<Route, ObjectProperty<PlayerId>> routes;
+    //properties of the routes, indexed by the index of the route
+    private final List<ObjectProperty<PlayerId>> routes;
 
 
     //Public PlayerStates
@@ -34,7 +35,16 @@ public class ObservableGameState {
     //Private PlayerState
     private final ObservableList<Ticket> playerTickets;
     private final Map<Card, IntegerProperty> playerCardsCount;
-    private final Map<Route, BooleanProperty> claimableRoute;
+    private final List<BooleanProperty> claimableRoute;
+
+    //progress of the tickets, indexed by the index of the ticket
+    private final List<BooleanProperty> ticketFulfilled;
+    private final List<IntegerProperty> ticketPoints;
+    //stations of each ticket, indexed by the index of the ticket
+    private final List<BitSet> ticketStations;
+    //network of the owner, updated with the routes claimed since the last state
+    private StationPartition ownerNetwork;
+    private final BitSet knownRoutes, knownTickets;
 
     /**
      * Constructor of ObservableGameState
@@ -48,14 +58,30 @@ public class ObservableGameState {
         this.cardStateFUC = createListProperties();
         this.gameCurrentPlayerId = new SimpleObjectProperty();
         this.gameLastPlayer = new SimpleObjectProperty();
-        this.routes = createMapPropertiesRoutes();
+        this.routes = createListPropertiesRoutes();
         this.playerCarCount = createMapPropertiesInteger();
         this.playerPoints = createMapPropertiesInteger();
         this.playerTicketCount = createMapPropertiesInteger();
         this.playerCardCount = createMapPropertiesInteger();
         this.playerTickets = new SimpleListProperty<>(FXCollections.observableArrayList());
         this.playerCardsCount = createMapPropertiesCard();
-        this.claimableRoute = createMapPropertiesClaimableRoutes();
+        this.claimableRoute = createListPropertiesClaimableRoutes();
+        this.ticketFulfilled = new ArrayList<>();
+        this.ticketPoints = new ArrayList<>();
+        this.ticketStations = new ArrayList<>();
+        for (Ticket ticket : ChMap.tickets()) {
+            ticketFulfilled.add(new SimpleBooleanProperty());
+            ticketPoints.add(new SimpleIntegerProperty());
+            BitSet stations = new BitSet();
+            for (Trip trip : ticket.getTrips()) {
+                stations.set(trip.from().id());
+                stations.set(trip.to().id());
+            }
+            ticketStations.add(stations);
+        }
+        this.ownerNetwork = new StationPartition.Builder(ChMap.stations().size()).build();
+        this.knownRoutes = new BitSet(ChMap.routes().size());
+        this.knownTickets = new BitSet(ChMap.tickets().size());
     }
 
 
@@ -98,10 +124,8 @@ public class ObservableGameState {
 
         //Routes associated to PlayerId
         for (Route rt : ChMap.routes()) {
-            if (publicGameState.claimedRoutes().contains(rt)) {
-                PlayerId id = playerState.routes().contains(rt) ? owner : owner.next();
-                routes.get(rt).setValue(id);
-            }
+            PlayerId id = publicGameState.owner(rt);
+            if (id != null) routes.get(rt.index()).setValue(id);
         }
 
 
@@ -127,9 +151,50 @@ public class ObservableGameState {
             playerCardsCount.get(c).setValue(i);
         }
 
+        //Progress of the tickets
+        updateTicketProgress();
+
         //If the player could or not claim each Route
-        for (Route r : ChMap.routes()) {
-            claimableRoute.get(r).setValue(canClaimRoute(r));
+        boolean isOwnerTurn = owner.equals(publicGameState.currentPlayerId());
+        BitSet claimable = playerState.claimableRoutes(publicGameState);
+        for (int index = 0; index < ChMap.routes().size(); index++) {
+            claimableRoute.get(index).setValue(isOwnerTurn && claimable.get(index));
+        }
+    }
+
+    /**
+     * Update the progress of the tickets of the owner, by adding his new routes to his network.
+     * Only the tickets which are new or which have a station connected to a new route are scored again.
+     */
+    private void updateTicketProgress() {
+        BitSet touchedStations = new BitSet(ChMap.stations().size());
+        for (Route rt : playerState.routes()) {
+            if (rt.index() < 0 || knownRoutes.get(rt.index())) continue;
+            knownRoutes.set(rt.index());
+            ownerNetwork = ownerNetwork.withConnected(rt.station1(), rt.station2());
+            touchedStations.set(rt.station1().id());
+        }
+        //a ticket can only change if one of its stations is now connected to a new route
+        if (!touchedStations.isEmpty()) {
+            for (Station station : ChMap.stations()) {
+                for (int id = touchedStations.nextSetBit(0); id >= 0; id = touchedStations.nextSetBit(id + 1)) {
+                    if (ownerNetwork.connected(station, ChMap.stations().get(id))) {
+                        touchedStations.set(station.id());
+                        break;
+                    }
+                }
+            }
+        }
+
+        for (Ticket ticket : playerState.tickets().toSet()) {
+            int index = ticket.index();
+            if (index < 0) continue;
+            if (!knownTickets.get(index) || ticketStations.get(index).intersects(touchedStations)) {
+                knownTickets.set(index);
+                int points = ticket.points(ownerNetwork);
+                ticketPoints.get(index).setValue(points);
+                ticketFulfilled.get(index).setValue(points > 0);
+            }
         }
     }
 
@@ -141,12 +206,12 @@ public class ObservableGameState {
         return map;
     }
 
-    private Map<Route, ObjectProperty<PlayerId>> createMapPropertiesRoutes() {
-        Map<Route, ObjectProperty<PlayerId>> map = new HashMap<>();
-        for (Route rt : ChMap.routes()) {
-            map.put(rt, new SimpleObjectProperty<>());
+    private List<ObjectProperty<PlayerId>> createListPropertiesRoutes() {
+        List<ObjectProperty<PlayerId>> list = new ArrayList<>();
+        for (int i = 0; i < ChMap.routes().size(); i++) {
+            list.add(new SimpleObjectProperty<>());
         }
-        return map;
+        return list;
     }
 
     private Map<Card, IntegerProperty> createMapPropertiesCard() {
@@ -162,33 +227,14 @@ public class ObservableGameState {
                 new SimpleObjectProperty<>(), new SimpleObjectProperty<>());
     }
 
-    private Map<Route, BooleanProperty> createMapPropertiesClaimableRoutes() {
-        Map<Route, BooleanProperty> map = new HashMap<>();
-        for (Route rt : ChMap.routes()) {
-            map.put(rt, new SimpleBooleanProperty());
+    private List<BooleanProperty> createListPropertiesClaimableRoutes() {
+        List<BooleanProperty> list = new ArrayList<>();
+        for (int i = 0; i < ChMap.routes().size(); i++) {
+            list.add(new SimpleBooleanProperty());
         }
-        return map;
+        return list;
     }
 
-    private boolean canClaimRoute(Route rt) {
-        return gameCurrentPlayerId.getValue().equals(owner) &&
-                routes.get(rt).getValue() == null &&
-                neighborFree(rt) &&
-                playerState.canClaimRoute(rt);
-    }
-
-    private boolean neighborFree(Route rt) {
-        for (Route route : ChMap.routes()) {
-            if ((route.station1() == rt.station1()) &&
-                    (route.station2() == rt.station2()) &&
-                    (!(routes.get(route).get() == null))) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-
     /**
      * @return owner of the class
      */
@@ -237,7 +283,7 @@ public class ObservableGameState {
      * @return the player's PlayerId that owns the route or null if none of the players owns the route
      */
     public ReadOnlyObjectProperty<PlayerId> routesProperty(Route rt) {
-        return routes.get(rt);
+        return routes.get(rt.index());
     }
 
     /**
@@ -290,7 +336,23 @@ public class ObservableGameState {
      * @return if whether or not <i>rt</i> is claimable as a ReadOnlyBooleanProperty
      */
     public ReadOnlyBooleanProperty getClaimableRoute(Route rt) {
-        return claimableRoute.get(rt);
+        return claimableRoute.get(rt.index());
+    }
+
+    /**
+     * @param ticket Ticket of the owner
+     * @return if <i>ticket</i> is already fulfilled by the routes of the owner as a ReadOnlyBooleanProperty
+     */
+    public ReadOnlyBooleanProperty ticketFulfilledProperty(Ticket ticket) {
+        return ticketFulfilled.get(ticket.index());
+    }
+
+    /**
+     * @param ticket Ticket of the owner
+     * @return the points that <i>ticket</i> currently brings to the owner as a ReadOnlyIntegerProperty
+     */
+    public ReadOnlyIntegerProperty ticketPointsProperty(Ticket ticket) {
+        return ticketPoints.get(ticket.index());
     }
 
     /**
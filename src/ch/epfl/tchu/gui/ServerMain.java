@@ -15,6 +15,8 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.List;
@@ -50,12 +52,19 @@ public class ServerMain extends Application {
         Socket socket = serverSocket.accept();
         Map<PlayerId, String> playerNames = Map.of(PlayerId.PLAYER_1, player1name, PlayerId.PLAYER_2, player2name);
 
+        RemotePlayerProxy proxy = new RemotePlayerProxy(socket);
         Map<PlayerId, Player> players =
                 Map.of(PLAYER_1, new GraphicalPlayerAdapter(),
-                        PLAYER_2, new RemotePlayerProxy(socket));
+                        PLAYER_2, proxy);
 
-        new Thread(() -> Game.play(players, playerNames, tickets, rng))
-                .start();
+        //the connection is closed at the end of the game, once its last messages are sent
+        new Thread(() -> {
+            try (proxy) {
+                Game.play(players, playerNames, tickets, rng);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).start();
 
     }
 }
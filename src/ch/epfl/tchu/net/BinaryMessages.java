@@ -0,0 +1,100 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <b>Class building the messages of the binary protocol sent to the clients</b>
+ * <p>A message is made of the ordinal of its MessageId, on one byte, followed by its arguments serialized
+ * by BinarySerdes. The answers of the clients are only made of their serialized value.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+final class BinaryMessages {
+    private BinaryMessages() {
+    }
+
+    /**
+     * @param id kind of the message
+     * @return the message, without any argument
+     */
+    static byte[] message(MessageId id) {
+        return new byte[]{(byte) id.ordinal()};
+    }
+
+    //begins a message with arguments
+    private static ByteArrayOutputStream start(MessageId id) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(id.ordinal());
+        return out;
+    }
+
+    /**
+     * @param ownId       player's identity
+     * @param playerNames Map that maps a player to this name
+     * @return the INIT_PLAYERS message
+     */
+    static byte[] initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        ByteArrayOutputStream out = start(MessageId.INIT_PLAYERS);
+        BinarySerdes.PLAYER_ID_SERDE.serialize(ownId, out);
+        BinarySerdes.LIST_STRING_SERDE.serialize(List.of(playerNames.get(PlayerId.PLAYER_1), playerNames.get(PlayerId.PLAYER_2)), out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @param info the string that contains the information (from class Info)
+     * @return the RECEIVE_INFO message
+     */
+    static byte[] receiveInfo(String info) {
+        ByteArrayOutputStream out = start(MessageId.RECEIVE_INFO);
+        BinarySerdes.STRING_SERDE.serialize(info, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @param newState new game state
+     * @param ownState state of the concerned player
+     * @return the UPDATE_STATE message
+     */
+    static byte[] updateState(PublicGameState newState, PlayerState ownState) {
+        ByteArrayOutputStream out = start(MessageId.UPDATE_STATE);
+        BinarySerdes.PUBLIC_GAME_STATE_SERDE.serialize(newState, out);
+        BinarySerdes.PLAYER_STATE_SERDE.serialize(ownState, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @param tickets the tickets that have been distributed
+     * @return the SET_INITIAL_TICKETS message
+     */
+    static byte[] setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        ByteArrayOutputStream out = start(MessageId.SET_INITIAL_TICKETS);
+        BinarySerdes.BAG_TICKET_SERDE.serialize(tickets, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @param options the tickets among which the client chooses
+     * @return the CHOOSE_TICKETS message
+     */
+    static byte[] chooseTickets(SortedBag<Ticket> options) {
+        ByteArrayOutputStream out = start(MessageId.CHOOSE_TICKETS);
+        BinarySerdes.BAG_TICKET_SERDE.serialize(options, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @param options the sets of cards among which the client chooses
+     * @return the CHOOSE_ADDITIONAL_CARDS message
+     */
+    static byte[] chooseAdditionalCards(List<SortedBag<Card>> options) {
+        ByteArrayOutputStream out = start(MessageId.CHOOSE_ADDITIONAL_CARDS);
+        BinarySerdes.LIST_BAG_CARD_SERDE.serialize(options, out);
+        return out.toByteArray();
+    }
+}
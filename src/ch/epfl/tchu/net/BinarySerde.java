@@ -0,0 +1,236 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Interface representing a binary Serde, able to serialize values of a given type to bytes and to deserialize them
+ * <p>It is the binary counterpart of Serde: the values are written one after the other without any separator,
+ * each BinarySerde reading exactly the bytes written by its serialization.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public interface BinarySerde<C> {
+    /**
+     * <b>Serialize a object at the end of the given bytes</b>
+     *
+     * @param c   object to serialize
+     * @param out bytes to which the serialization of the object is added
+     */
+    void serialize(C c, ByteArrayOutputStream out);
+
+    /**
+     * <b>Deserialize an object from the given bytes</b>
+     *
+     * @param in bytes whose next ones are the serialization of the object, read by the method
+     * @return object corresponding to the bytes read
+     * @throws java.nio.BufferUnderflowException if the bytes end before the object
+     */
+    C deserialize(ByteBuffer in);
+
+    /**
+     * <b>Serialize a object</b>
+     *
+     * @param c object to serialize
+     * @return the bytes corresponding to the object to serialize
+     */
+    default byte[] serialize(C c) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serialize(c, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * <b>Deserialize bytes</b>
+     *
+     * @param bytes bytes to deserialize
+     * @return object corresponding to the given bytes
+     * @throws IllegalArgumentException if the bytes do not all belong to the object
+     */
+    default C deserialize(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        C c = deserialize(in);
+        Preconditions.checkArgument(!in.hasRemaining());
+        return c;
+    }
+
+    /**
+     * <b>Apply functions of serialization and deserialization</b>
+     *
+     * @param serialize   Function that is used to serialize
+     * @param deserialize Function that is used to deserialize
+     * @param <T>         Type of object
+     * @return BinarySerde corresponding to given function of serialization and deserialization
+     */
+    static <T> BinarySerde<T> of(BiConsumer<T, ByteArrayOutputStream> serialize, Function<ByteBuffer, T> deserialize) {
+        return new BinarySerde<>() {
+            @Override
+            public void serialize(T t, ByteArrayOutputStream out) {
+                serialize.accept(t, out);
+            }
+
+            @Override
+            public T deserialize(ByteBuffer in) {
+                return deserialize.apply(in);
+            }
+        };
+    }
+
+    /**
+     * <b>Write a non negative integer as a varint</b>
+     * <p>The integer is written 7 bits at a time, starting with the lowest ones, the highest bit of each byte
+     * telling if more follow: integers smaller than 128 take a single byte.</p>
+     *
+     * @param out   bytes to which the integer is added
+     * @param value the integer, read as unsigned
+     */
+    static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * <b>Read an integer written by <i>writeVarInt</i></b>
+     *
+     * @param in bytes whose next ones are the varint
+     * @return the integer
+     * @throws IllegalArgumentException if the varint is longer than an integer
+     */
+    static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            //the fifth byte only holds the 4 highest bits of the integer, and is the last one
+            Preconditions.checkArgument(shift < 28 || (b & 0xF0) == 0);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+
+    /**
+     * <b>Returning BinarySerde that can serialize a given element of a list or deserialize it</b>
+     * <p>The element is written as its index in the list plus one, as a varint, null being written as 0:
+     * lists of less than 127 elements use a single byte.</p>
+     *
+     * @param list  list of all values in an enumerated set of values
+     * @param index function giving the index of an element in <i>list</i>, negative if it is not in the list
+     * @param <T>   type of object
+     * @return BinarySerde matching a given element of the <i>list</i>, whose serialization throws
+     * IllegalArgumentException if the element is neither null nor in the <i>list</i>
+     */
+    static <T> BinarySerde<T> oneOf(List<T> list, ToIntFunction<T> index) {
+        return of((t, out) -> {
+                    if (t == null) {
+                        writeVarInt(out, 0);
+                    } else {
+                        int i = index.applyAsInt(t);
+                        if (i < 0) i = list.indexOf(t);
+                        //-1 would be written as 0, and read back as null
+                        Preconditions.checkArgument(i >= 0);
+                        writeVarInt(out, i + 1);
+                    }
+                },
+                in -> {
+                    int i = readVarInt(in);
+                    return i == 0 ? null : list.get(i - 1);
+                });
+    }
+
+    /**
+     * <b>Returning a BinarySerde capable of (de) serializing lists of values (de) serialized by the given serde</b>
+     * <p>The size of the list is written before its elements.</p>
+     *
+     * @param serde BinarySerde of the elements
+     * @param <T>   type of object
+     * @return BinarySerde capable of (de) serializing lists of values (de) serialized by the given serde
+     */
+    static <T> BinarySerde<List<T>> listOf(BinarySerde<T> serde) {
+        return of((t, out) -> {
+                    writeVarInt(out, t.size());
+                    for (T e : t) serde.serialize(e, out);
+                },
+                in -> {
+                    int size = readVarInt(in);
+                    //the size is not trusted to allocate the list, each element taking at least one byte
+                    Preconditions.checkArgument(size <= in.remaining());
+                    List<T> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) list.add(serde.deserialize(in));
+                    return list;
+                });
+    }
+
+    /**
+     * <b>Returning a BinarySerde capable of (de) serializing SortedBags of values (de) serialized by the given serde</b>
+     *
+     * @param serde BinarySerde of the elements
+     * @param <T>   type of object
+     * @return BinarySerde capable of (de) serializing SortedBags of values (de) serialized by the given serde
+     */
+    static <T extends Comparable<T>> BinarySerde<SortedBag<T>> bagOf(BinarySerde<T> serde) {
+        BinarySerde<List<T>> listSerde = listOf(serde);
+        return of((t, out) -> listSerde.serialize(t.toList(), out),
+                in -> SortedBag.of(listSerde.deserialize(in)));
+    }
+
+    /**
+     * <b>Returning a BinarySerde capable of (de) serializing lists of elements of a small list</b>
+     * <p>The size of the list is written before its elements, each element being written as its index on 4 bits:
+     * two elements take a single byte.</p>
+     *
+     * @param list  list of all values in an enumerated set of at most 16 values
+     * @param index function giving the index of an element in <i>list</i>
+     * @param <T>   type of object
+     * @return BinarySerde capable of (de) serializing lists of elements of the <i>list</i>, which cannot be null
+     * @throws IllegalArgumentException if the list has more than 16 elements
+     */
+    static <T> BinarySerde<List<T>> packedListOf(List<T> list, ToIntFunction<T> index) {
+        Preconditions.checkArgument(list.size() <= 16);
+        return of((t, out) -> {
+                    writeVarInt(out, t.size());
+                    for (int i = 0; i < t.size(); i += 2) {
+                        int high = index.applyAsInt(t.get(i));
+                        int low = i + 1 < t.size() ? index.applyAsInt(t.get(i + 1)) : 0;
+                        out.write(high << 4 | low);
+                    }
+                },
+                in -> {
+                    int size = readVarInt(in);
+                    Preconditions.checkArgument(size <= 2 * in.remaining());
+                    List<T> elements = new ArrayList<>(size);
+                    for (int i = 0; i < size; i += 2) {
+                        byte b = in.get();
+                        elements.add(list.get((b >> 4) & 0xF));
+                        if (i + 1 < size) elements.add(list.get(b & 0xF));
+                    }
+                    return elements;
+                });
+    }
+
+    /**
+     * <b>Returning a BinarySerde capable of (de) serializing SortedBags of elements of a small list</b>
+     * <p>The elements are written as by <i>packedListOf</i>.</p>
+     *
+     * @param list  list of all values in an enumerated set of at most 16 values
+     * @param index function giving the index of an element in <i>list</i>
+     * @param <T>   type of object
+     * @return BinarySerde capable of (de) serializing SortedBags of elements of the <i>list</i>
+     * @throws IllegalArgumentException if the list has more than 16 elements
+     */
+    static <T extends Comparable<T>> BinarySerde<SortedBag<T>> packedBagOf(List<T> list, ToIntFunction<T> index) {
+        BinarySerde<List<T>> listSerde = packedListOf(list, index);
+        return of((t, out) -> listSerde.serialize(t.toList(), out),
+                in -> SortedBag.of(listSerde.deserialize(in)));
+    }
+}
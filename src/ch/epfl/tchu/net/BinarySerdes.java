@@ -0,0 +1,165 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class BinarySerdes containing all BinarySerde used in the project, the binary counterparts of the Serde of Serdes
+ * <p>The components of a state are read in the order they were written, the arguments of a constructor being
+ * evaluated from left to right.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class BinarySerdes {
+    private BinarySerdes() {
+    }
+
+    /**
+     * BinarySerde used for integer, written as a varint after having been zigzag encoded
+     * (0, -1, 1, -2... are written as 0, 1, 2, 3...) so that small negative integers take a single byte
+     */
+    public final static BinarySerde<Integer> INTEGER_SERDE = BinarySerde.of(
+            (i, out) -> BinarySerde.writeVarInt(out, (i << 1) ^ (i >> 31)),
+            in -> {
+                int zigzag = BinarySerde.readVarInt(in);
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            });
+
+    /**
+     * BinarySerde used for String, written as its length in bytes followed by its UTF-8 encoding
+     */
+    public final static BinarySerde<String> STRING_SERDE = BinarySerde.of(
+            (s, out) -> {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                BinarySerde.writeVarInt(out, bytes.length);
+                out.writeBytes(bytes);
+            },
+            in -> {
+                int length = BinarySerde.readVarInt(in);
+                Preconditions.checkArgument(length <= in.remaining());
+                String s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+                return s;
+            });
+
+    /**
+     * BinarySerde used for playerId
+     */
+    public final static BinarySerde<PlayerId> PLAYER_ID_SERDE = BinarySerde.oneOf(PlayerId.ALL, PlayerId::ordinal);
+
+    /**
+     * BinarySerde used for turnKind enumeration
+     */
+    public final static BinarySerde<Player.TurnKind> TURN_KIND_SERDE = BinarySerde.oneOf(Player.TurnKind.ALL, Player.TurnKind::ordinal);
+
+    /**
+     * BinarySerde used for Route
+     */
+    public final static BinarySerde<Route> ROUTE_SERDE = BinarySerde.oneOf(ChMap.routes(), Route::index);
+
+    /**
+     * BinarySerde used for Ticket
+     */
+    public final static BinarySerde<Ticket> TICKET_SERDE = BinarySerde.oneOf(ChMap.tickets(), Ticket::index);
+
+    /**
+     * BinarySerde used for a list of Strings
+     */
+    public final static BinarySerde<List<String>> LIST_STRING_SERDE = BinarySerde.listOf(STRING_SERDE);
+
+    /**
+     * BinarySerde used for a list of Cards, two cards per byte
+     */
+    public final static BinarySerde<List<Card>> LIST_CARD_SERDE = BinarySerde.packedListOf(Card.ALL, Card::ordinal);
+
+    /**
+     * BinarySerde used for a list of Routes
+     */
+    public final static BinarySerde<List<Route>> LIST_ROUTE_SERDE = BinarySerde.listOf(ROUTE_SERDE);
+
+    /**
+     * BinarySerde used for a SortedBag of Cards, two cards per byte
+     */
+    public final static BinarySerde<SortedBag<Card>> BAG_CARD_SERDE = BinarySerde.packedBagOf(Card.ALL, Card::ordinal);
+
+    /**
+     * BinarySerde used for a SortedBag of Tickets
+     */
+    public final static BinarySerde<SortedBag<Ticket>> BAG_TICKET_SERDE = BinarySerde.bagOf(TICKET_SERDE);
+
+    /**
+     * BinarySerde used for a list of SortedBags of Cards
+     */
+    public final static BinarySerde<List<SortedBag<Card>>> LIST_BAG_CARD_SERDE = BinarySerde.listOf(BAG_CARD_SERDE);
+
+    /**
+     * BinarySerde used for PublicCardState
+     */
+    public final static BinarySerde<PublicCardState> PUBLIC_CARD_STATE_SERDE = BinarySerde.of(
+            (state, out) -> {
+                LIST_CARD_SERDE.serialize(state.faceUpCards(), out);
+                INTEGER_SERDE.serialize(state.deckSize(), out);
+                INTEGER_SERDE.serialize(state.discardsSize(), out);
+            },
+            in -> new PublicCardState(
+                    LIST_CARD_SERDE.deserialize(in),
+                    INTEGER_SERDE.deserialize(in),
+                    INTEGER_SERDE.deserialize(in)));
+
+    /**
+     * BinarySerde used for PublicPlayerState
+     */
+    public final static BinarySerde<PublicPlayerState> PUBLIC_PLAYER_STATE_SERDE = BinarySerde.of(
+            (state, out) -> {
+                INTEGER_SERDE.serialize(state.ticketCount(), out);
+                INTEGER_SERDE.serialize(state.cardCount(), out);
+                LIST_ROUTE_SERDE.serialize(state.routes(), out);
+            },
+            in -> new PublicPlayerState(
+                    INTEGER_SERDE.deserialize(in),
+                    INTEGER_SERDE.deserialize(in),
+                    LIST_ROUTE_SERDE.deserialize(in)));
+
+    /**
+     * BinarySerde used for PlayerState
+     */
+    public final static BinarySerde<PlayerState> PLAYER_STATE_SERDE = BinarySerde.of(
+            (state, out) -> {
+                BAG_TICKET_SERDE.serialize(state.tickets(), out);
+                BAG_CARD_SERDE.serialize(state.cards(), out);
+                LIST_ROUTE_SERDE.serialize(state.routes(), out);
+            },
+            in -> new PlayerState(
+                    BAG_TICKET_SERDE.deserialize(in),
+                    BAG_CARD_SERDE.deserialize(in),
+                    LIST_ROUTE_SERDE.deserialize(in)));
+
+    /**
+     * BinarySerde used for PublicGameState
+     */
+    public final static BinarySerde<PublicGameState> PUBLIC_GAME_STATE_SERDE = BinarySerde.of(
+            (state, out) -> {
+                INTEGER_SERDE.serialize(state.ticketsCount(), out);
+                PUBLIC_CARD_STATE_SERDE.serialize(state.cardState(), out);
+                PLAYER_ID_SERDE.serialize(state.currentPlayerId(), out);
+                PUBLIC_PLAYER_STATE_SERDE.serialize(state.playerState(PlayerId.PLAYER_1), out);
+                PUBLIC_PLAYER_STATE_SERDE.serialize(state.playerState(PlayerId.PLAYER_2), out);
+                PLAYER_ID_SERDE.serialize(state.lastPlayer(), out);
+            },
+            in -> {
+                int ticketCount = INTEGER_SERDE.deserialize(in);
+                PublicCardState cardState = PUBLIC_CARD_STATE_SERDE.deserialize(in);
+                PlayerId currentId = PLAYER_ID_SERDE.deserialize(in);
+                PublicPlayerState player1State = PUBLIC_PLAYER_STATE_SERDE.deserialize(in);
+                PublicPlayerState player2State = PUBLIC_PLAYER_STATE_SERDE.deserialize(in);
+                Map<PlayerId, PublicPlayerState> map = Map.of(PlayerId.PLAYER_1, player1State, PlayerId.PLAYER_2, player2State);
+                PlayerId lastId = PLAYER_ID_SERDE.deserialize(in);
+                return new PublicGameState(ticketCount, cardState, currentId, map, lastId);
+            });
+}
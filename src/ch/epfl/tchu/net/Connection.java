@@ -0,0 +1,238 @@
+package ch.epfl.tchu.net;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * <b>Class representing a blocking connection exchanging messages</b>
+ * <p>The streams of the socket are buffered once for the whole connection. The messages sent are only
+ * written to the socket when the connection is flushed, and it is flushed before waiting for a message:
+ * the messages are thus coalesced until the other side is asked to answer. The number of messages and
+ * bytes exchanged are counted.</p>
+ * <p>Two kinds of messages can be exchanged: textual messages ended by a newline, and binary messages
+ * preceded by their length, written as a varint. The version of the protocol agreed by both sides tells
+ * which kind is used.</p>
+ * <p>A Connection is used by one thread at a time, the counters can be read by any thread.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class Connection implements Closeable {
+    /**
+     * Version of the protocol where the messages are text, serialized by Serdes
+     */
+    public static final int TEXT_VERSION = 1;
+
+    /**
+     * Version of the protocol where the messages are binary, serialized by BinarySerdes
+     */
+    public static final int BINARY_VERSION = 2;
+
+    //protects the server from a client sending a message without end
+    private static final int MAX_MESSAGE_LENGTH = 1 << 16;
+
+    private final Socket socket;
+    private final BufferedInputStream input;
+    private final BufferedOutputStream output;
+    //beginning of the textual message being received
+    private byte[] line = new byte[64];
+
+    //only modified by the thread using the connection
+    private volatile long messagesSent, bytesSent, messagesReceived, bytesReceived;
+
+    /**
+     * <b>Constructor of a Connection</b>
+     * <p>Nagle's algorithm is disabled, the messages being already coalesced by the connection.</p>
+     *
+     * @param socket the socket of the connection, closed with it
+     * @throws IOException if the streams of the socket cannot be obtained
+     */
+    public Connection(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.input = new BufferedInputStream(socket.getInputStream());
+        this.output = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    /**
+     * <b>Add a textual message to the ones sent at the next flush</b>
+     *
+     * @param message the message, without its newline
+     * @throws UncheckedIOException in case of error of the connection
+     */
+    public void send(String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.US_ASCII);
+        try {
+            output.write(bytes);
+            output.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        messagesSent++;
+        bytesSent += bytes.length + 1;
+    }
+
+    /**
+     * <b>Add a binary message to the ones sent at the next flush</b>
+     *
+     * @param message the message, without its length
+     * @throws UncheckedIOException in case of error of the connection
+     */
+    public void send(byte[] message) {
+        int header = 0;
+        try {
+            //the length is written 7 bits at a time, the highest bit telling if more follow
+            int length = message.length;
+            while ((length & ~0x7F) != 0) {
+                output.write((length & 0x7F) | 0x80);
+                length >>>= 7;
+                header++;
+            }
+            output.write(length);
+            output.write(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        messagesSent++;
+        bytesSent += message.length + header + 1;
+    }
+
+    /**
+     * <b>Write the messages sent since the last flush to the socket</b>
+     *
+     * @throws UncheckedIOException in case of error of the connection
+     */
+    public void flush() {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * <b>Flush the connection then wait until a message arrives or the other side closes the connection</b>
+     *
+     * @return true if a message can be received, false if the connection has been closed by the other side
+     * @throws UncheckedIOException in case of error of the connection
+     */
+    public boolean awaitMessage() {
+        flush();
+        try {
+            input.mark(1);
+            if (input.read() < 0) return false;
+            input.reset();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * <b>Flush the connection then wait for a textual message</b>
+     *
+     * @return the message received, without its newline
+     * @throws UncheckedIOException in case of error of the connection, if the message is too long or if the
+     *                              connection has been closed by the other side
+     */
+    public String receive() {
+        flush();
+        int length = 0;
+        try {
+            int b;
+            while ((b = input.read()) != '\n') {
+                if (b < 0) throw new EOFException();
+                if (length == MAX_MESSAGE_LENGTH) throw new IOException("message too long");
+                if (length == line.length) line = Arrays.copyOf(line, 2 * line.length);
+                line[length++] = (byte) b;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        messagesReceived++;
+        bytesReceived += length + 1;
+        return new String(line, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * <b>Flush the connection then wait for a binary message</b>
+     *
+     * @return the message received, without its length
+     * @throws UncheckedIOException in case of error of the connection, if the message is too long or if the
+     *                              connection has been closed by the other side
+     */
+    public byte[] receiveBytes() {
+        flush();
+        byte[] message;
+        int header = 0;
+        try {
+            int length = 0;
+            int b;
+            do {
+                b = input.read();
+                if (b < 0) throw new EOFException();
+                length |= (b & 0x7F) << (7 * header++);
+                if (length > MAX_MESSAGE_LENGTH || header > 3) throw new IOException("message too long");
+            } while ((b & 0x80) != 0);
+            message = input.readNBytes(length);
+            if (message.length < length) throw new EOFException();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        messagesReceived++;
+        bytesReceived += message.length + header;
+        return message;
+    }
+
+    /**
+     * @return the number of messages sent
+     */
+    public long messagesSent() {
+        return messagesSent;
+    }
+
+    /**
+     * @return the number of bytes sent
+     */
+    public long bytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * @return the number of messages received
+     */
+    public long messagesReceived() {
+        return messagesReceived;
+    }
+
+    /**
+     * @return the number of bytes received
+     */
+    public long bytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * <b>Flush then close the connection</b>
+     *
+     * @throws IOException if the socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            //the other side has already left, nothing more can be sent
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("sent: %d messages (%d bytes), received: %d messages (%d bytes)",
+                messagesSent, bytesSent, messagesReceived, bytesReceived);
+    }
+}
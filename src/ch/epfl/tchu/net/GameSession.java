@@ -0,0 +1,132 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <b>Class linking a GameEngine to the connections of its two players</b>
+ * <p>The informations and states sent by the engine, and the decisions it asks, are written to the
+ * connections; the answer of the player who has to decide is given to the engine when it arrives.
+ * Nothing ever waits, so that a single thread can drive all the games.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+final class GameSession {
+    private final Map<PlayerId, MessageChannel> channels;
+    private final GameEngine engine;
+
+    /**
+     * <b>PlayerInformer whose methods write the corresponding messages to a connection</b>
+     * <p>The decisions are asked by the session itself, from the requests of the engine.</p>
+     */
+    private static final class ChannelPlayer implements PlayerInformer {
+        private final MessageChannel channel;
+
+        private ChannelPlayer(MessageChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            channel.send(Messages.initPlayers(ownId, playerNames));
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            channel.send(Messages.receiveInfo(info));
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            channel.send(Messages.updateState(newState, ownState));
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            channel.send(Messages.setInitialTicketChoice(tickets));
+        }
+    }
+
+    /**
+     * <b>Start a game between two connections</b>
+     * <p>The messages of the beginning of the game, up to the first decision, are waiting to be sent.</p>
+     *
+     * @param channels    Map with the connections of the players linked to their Id's
+     * @param playerNames Map with the player's Id linked to their name
+     * @param tickets     a SortedBag of all the tickets used in the game
+     * @param random      the sources of randomness of the game
+     */
+    GameSession(Map<PlayerId, MessageChannel> channels, Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets, GameRandom random) {
+        this.channels = new EnumMap<>(channels);
+        Map<PlayerId, PlayerInformer> players = new EnumMap<>(PlayerId.class);
+        channels.forEach((id, channel) -> {
+            channel.setSession(this);
+            players.put(id, new ChannelPlayer(channel));
+        });
+        this.engine = GameEngine.start(players, playerNames, tickets, random);
+        sendRequest();
+    }
+
+    /**
+     * <b>Give a message received from a connection to the engine</b>
+     *
+     * @param channel the connection the message comes from
+     * @param message the message, without its newline
+     * @throws IllegalStateException    if the player of the connection has not been asked anything
+     * @throws IllegalArgumentException if the message is not a valid answer to the decision asked, or if the
+     *                                  decision is not allowed by the rules
+     */
+    void onMessage(MessageChannel channel, String message) {
+        GameEngine.Request request = engine.pendingRequest();
+        if (request == null || channels.get(request.playerId()) != channel) throw new IllegalStateException();
+        engine.step(Messages.decision(request.kind(), message));
+        sendRequest();
+    }
+
+    //asks the pending decision, or ends the connections if the game is finished
+    private void sendRequest() {
+        GameEngine.Request request = engine.pendingRequest();
+        if (request != null) channels.get(request.playerId()).send(Messages.request(request));
+    }
+
+    /**
+     * @return the connection of the player who has to decide, null if the game is finished
+     */
+    MessageChannel awaitedChannel() {
+        GameEngine.Request request = engine.pendingRequest();
+        return request == null ? null : channels.get(request.playerId());
+    }
+
+    /**
+     * @return if the game is finished
+     */
+    boolean isFinished() {
+        return engine.isFinished();
+    }
+
+    /**
+     * <b>Send the messages waiting on both connections</b>
+     * <p>Once the game is finished, the connections are closed after their last messages.</p>
+     *
+     * @throws IOException in case of error of one of the connections
+     */
+    void flush() throws IOException {
+        for (MessageChannel channel : channels.values()) {
+            if (!channel.isOpen()) continue;
+            if (isFinished()) channel.closeWhenFlushed();
+            else channel.flush();
+        }
+    }
+
+    /**
+     * <b>Interrupt the game, closing both connections immediately</b>
+     */
+    void abort() {
+        for (MessageChannel channel : channels.values()) channel.close();
+    }
+}
@@ -0,0 +1,242 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * <b>Class representing a headless server hosting many games</b>
+ * <p>The clients connecting to the port are paired in the order of their arrival, each pair playing a game.
+ * The games are played by a fixed number of threads: when they are all busy, the new games wait in a
+ * bounded queue, and when the queue is full the clients are disconnected. The number of simultaneous games
+ * is thus bounded; the memory used by a game is not, the report only giving the heap still used after the
+ * last garbage collection.</p>
+ * <p>Arguments of the main program (all optional): port, maximal number of simultaneous games.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class LobbyServer implements Closeable {
+    /**
+     * Port used by default, the same as the one of ServerMain
+     */
+    public static final int DEFAULT_PORT = 5108;
+    private static final int DEFAULT_MAX_GAMES = 64;
+    //a client silent during this time is considered as disconnected
+    private static final int READ_TIMEOUT_MILLIS = 10 * 60 * 1000;
+    //time during which a waiting client is read to know if it is still connected
+    private static final int PROBE_TIMEOUT_MILLIS = 1;
+    private static final int REPORT_PERIOD_SECONDS = 10;
+
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+    private static final Map<PlayerId, String> PLAYER_NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    private final ServerSocket serverSocket;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger activeGames = new AtomicInteger();
+    private final AtomicInteger finishedGames = new AtomicInteger();
+    private final AtomicInteger failedGames = new AtomicInteger();
+
+    //only used by the thread accepting the clients
+    private final SplittableRandom seeds = new SplittableRandom();
+    private Socket waitingClient;
+
+    /**
+     * <b>Constructor of a LobbyServer</b>
+     *
+     * @param port     port on which the clients connect
+     * @param maxGames maximal number of games played simultaneously, as many games being able to wait
+     * @throws IOException if the port cannot be opened
+     */
+    public LobbyServer(int port, int maxGames) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxGames, maxGames, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxGames),
+                r -> new Thread(r, "tchu-game-" + threadCount.incrementAndGet()));
+    }
+
+    /**
+     * <b>Accept and pair the clients until the server is closed</b>
+     *
+     * @throws IOException in case of error of the server socket
+     */
+    public void run() throws IOException {
+        try {
+            while (true) {
+                Socket client = serverSocket.accept();
+                client.setSoTimeout(READ_TIMEOUT_MILLIS);
+                client.setTcpNoDelay(true);
+                //a client which left while waiting is replaced
+                if (waitingClient == null || hasLeft(waitingClient)) {
+                    if (waitingClient != null) closeQuietly(waitingClient);
+                    waitingClient = client;
+                } else {
+                    startGame(waitingClient, client);
+                    waitingClient = null;
+                }
+            }
+        } catch (SocketException e) {
+            //the server socket has been closed
+            if (!serverSocket.isClosed()) throw e;
+        }
+    }
+
+    /**
+     * <b>Check if a client waiting for an opponent is still connected</b>
+     * <p>The server speaks first, so a waiting client has nothing to send: the socket is read for a short time,
+     * and an end of stream, an error or an unexpected byte means that the client is gone or unusable. A socket
+     * is only known to be closed by reading it, <i>isClosed</i> only telling if it was closed by the server.</p>
+     *
+     * @param client a client which has not received anything yet
+     * @return if the client cannot play anymore
+     */
+    private static boolean hasLeft(Socket client) {
+        try {
+            client.setSoTimeout(PROBE_TIMEOUT_MILLIS);
+            client.getInputStream().read();
+            return true;
+        } catch (SocketTimeoutException e) {
+            //nothing to read: the client is still waiting
+            try {
+                client.setSoTimeout(READ_TIMEOUT_MILLIS);
+                return false;
+            } catch (SocketException e1) {
+                return true;
+            }
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private void startGame(Socket client1, Socket client2) {
+        long seed = seeds.nextLong();
+        try {
+            executor.execute(() -> play(client1, client2, seed));
+        } catch (RejectedExecutionException e) {
+            //the server is full
+            closeQuietly(client1);
+            closeQuietly(client2);
+        }
+    }
+
+    private void play(Socket client1, Socket client2, long seed) {
+        activeGames.incrementAndGet();
+        //closing the proxies sends the last messages of the game
+        try (RemotePlayerProxy proxy1 = new RemotePlayerProxy(client1);
+             RemotePlayerProxy proxy2 = new RemotePlayerProxy(client2)) {
+            Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+            players.put(PLAYER_1, proxy1);
+            players.put(PLAYER_2, proxy2);
+            Game.play(players, PLAYER_NAMES, TICKETS, GameRandom.of(seed));
+            finishedGames.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            //a client disconnected, did not answer in time or sent an invalid message
+            failedGames.incrementAndGet();
+        } finally {
+            activeGames.decrementAndGet();
+            closeQuietly(client1);
+            closeQuietly(client2);
+        }
+    }
+
+    /**
+     * @return the number of games being played
+     */
+    public int activeGames() {
+        return activeGames.get();
+    }
+
+    /**
+     * @return the number of games waiting for a thread to be played
+     */
+    public int queuedGames() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return the number of games played until the end
+     */
+    public int finishedGames() {
+        return finishedGames.get();
+    }
+
+    /**
+     * @return the number of games interrupted, for example by the disconnection of a client
+     */
+    public int failedGames() {
+        return failedGames.get();
+    }
+
+    /**
+     * @return a description of the activity of the server and of the heap used after the last garbage collection
+     */
+    public String report() {
+        return String.format("active: %d, queued: %d, finished: %d, failed: %d, heap after last collection: %d kB",
+                activeGames(), queuedGames(), finishedGames(), failedGames(), collectedHeap() / 1024);
+    }
+
+    /**
+     * <b>Stop accepting clients and interrupt the games being played</b>
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    //the heap used just after the last collection of each pool, so that the garbage is not counted: it is
+    //the memory retained by the whole program, 0 until the first collection and only updated by the next ones
+    private static long collectedHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usage != null) used += usage.getUsed();
+        }
+        return used;
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            //the socket is closed anyway
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length >= 1 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int maxGames = args.length >= 2 ? Integer.parseInt(args[1]) : DEFAULT_MAX_GAMES;
+
+        LobbyServer server = new LobbyServer(port, maxGames);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tchu-lobby-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> System.out.println(server.report()),
+                REPORT_PERIOD_SECONDS, REPORT_PERIOD_SECONDS, TimeUnit.SECONDS);
+        System.out.println("Lobby listening on port " + port + ", " + maxGames + " games at most");
+        server.run();
+    }
+}
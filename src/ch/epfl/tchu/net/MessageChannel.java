@@ -0,0 +1,163 @@
+package ch.epfl.tchu.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <b>Class representing a non-blocking connection exchanging messages separated by newlines</b>
+ * <p>The bytes received are cut into messages as they arrive, a message being complete when its newline
+ * has been received. The messages to send are kept in a buffer until the channel can accept them.
+ * A MessageChannel is only used by the thread of its selector.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+final class MessageChannel {
+    //protects the server from a client sending a message without end
+    private static final int MAX_MESSAGE_LENGTH = 1 << 16;
+    private static final int BUFFER_SIZE = 1 << 10;
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+    //beginning of the message being received
+    private byte[] partial = new byte[64];
+    private int partialLength = 0;
+    //messages waiting to be sent, in write mode
+    private ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+    private boolean closeWhenFlushed = false;
+    private GameSession session;
+    //System.nanoTime() of the last bytes received from the connection, or of the last message added for it
+    private long lastActivity = System.nanoTime();
+
+    /**
+     * Constructor of a MessageChannel
+     *
+     * @param channel the non-blocking channel of the connection
+     * @param key     the key of the channel in its selector
+     */
+    MessageChannel(SocketChannel channel, SelectionKey key) {
+        this.channel = channel;
+        this.key = key;
+    }
+
+    /**
+     * <b>Read the bytes available</b>
+     *
+     * @return the messages completed by these bytes, without their newline
+     * @throws IOException if the connection is closed or if a message is too long
+     */
+    List<String> read() throws IOException {
+        if (channel.read(input) < 0) throw new EOFException();
+        input.flip();
+        List<String> messages = new ArrayList<>();
+        lastActivity = System.nanoTime();
+        while (input.hasRemaining()) {
+            byte b = input.get();
+            if (b == '\n') {
+                messages.add(new String(partial, 0, partialLength, StandardCharsets.US_ASCII));
+                partialLength = 0;
+            } else {
+                if (partialLength == MAX_MESSAGE_LENGTH) throw new IOException("message too long");
+                if (partialLength == partial.length) partial = Arrays.copyOf(partial, 2 * partial.length);
+                partial[partialLength++] = b;
+            }
+        }
+        input.clear();
+        return messages;
+    }
+
+    /**
+     * <b>Add a message to the ones waiting to be sent</b>
+     *
+     * @param message the message, without its newline
+     */
+    void send(String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.US_ASCII);
+        if (output.remaining() < bytes.length + 1) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * output.capacity(), output.position() + bytes.length + 1));
+            output.flip();
+            bigger.put(output);
+            output = bigger;
+        }
+        output.put(bytes).put((byte) '\n');
+        lastActivity = System.nanoTime();
+    }
+
+    /**
+     * <b>Send as much as possible of the waiting messages</b>
+     * <p>The selector is asked to tell when the channel can accept the rest, if any. The connection is
+     * closed once everything has been sent if it was asked by <i>closeWhenFlushed</i>.</p>
+     *
+     * @throws IOException in case of error of the connection
+     */
+    void flush() throws IOException {
+        output.flip();
+        channel.write(output);
+        output.compact();
+        boolean pending = output.position() > 0;
+        if (!pending && closeWhenFlushed) {
+            close();
+        } else if (key.isValid()) {
+            key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * <b>Close the connection once all the waiting messages have been sent</b>
+     *
+     * @throws IOException in case of error of the connection
+     */
+    void closeWhenFlushed() throws IOException {
+        closeWhenFlushed = true;
+        flush();
+    }
+
+    /**
+     * <b>Close the connection immediately</b>
+     */
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            //the channel is closed anyway
+        }
+    }
+
+    /**
+     * @return if the connection is open
+     */
+    boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    /**
+     * @return the time, as given by <i>System.nanoTime()</i>, at which bytes were last received from the
+     * connection or a message was last added to the ones to send
+     */
+    long lastActivity() {
+        return lastActivity;
+    }
+
+    /**
+     * @return the game the connection takes part in, null if it is waiting for an opponent
+     */
+    GameSession session() {
+        return session;
+    }
+
+    /**
+     * @param session the game the connection takes part in
+     */
+    void setSession(GameSession session) {
+        this.session = session;
+    }
+}
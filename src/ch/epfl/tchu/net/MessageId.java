@@ -1,10 +1,13 @@
 package ch.epfl.tchu.net;
 
+import java.util.List;
+
 /**
  * <b>Enumeration of all kind of message sent to the Client</b>
  * <li>INIT_PLAYERS<li>RECEIVE_INFO<li>UPDATE_STATE<li>SET_INITIAL_TICKETS
  * <li>CHOOSE_INITIAL_TICKETS<li>NEXT_TURN<li>CHOOSE_TICKETS<li>DRAW_SLOT
- * <li>ROUTE<li>CARDS<li>CHOOSE_ADDITIONAL_CARDS
+ * <li>ROUTE<li>CARDS<li>CHOOSE_ADDITIONAL_CARDS<li>VERSION
+ * <p>In the binary protocol, a message begins with the ordinal of its MessageId.</p>
  *
  * @author Albert Troussard (330361)
  * @author Ménélik Nouvellon (328132)
@@ -20,5 +23,12 @@ public enum MessageId {
     DRAW_SLOT,
     ROUTE,
     CARDS,
-    CHOOSE_ADDITIONAL_CARDS
+    CHOOSE_ADDITIONAL_CARDS,
+    //offers the binary protocol, always sent as text
+    VERSION;
+
+    /**
+     * List of all the MessageId, in the order of their ordinal
+     */
+    public static final List<MessageId> ALL = List.of(MessageId.values());
 }
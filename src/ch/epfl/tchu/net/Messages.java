@@ -0,0 +1,116 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <b>Class building the messages sent to the clients and reading their answers</b>
+ * <p>A message is made of its MessageId followed by its serialized arguments, separated by spaces,
+ * without the final newline.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+final class Messages {
+    private Messages() {
+    }
+
+    /**
+     * @param id   kind of the message
+     * @param args serialized arguments separated by spaces, null if there is none
+     * @return the message
+     */
+    static String message(MessageId id, String args) {
+        return args == null ? id.name() : String.join(" ", id.name(), args);
+    }
+
+    /**
+     * @param ownId       player's identity
+     * @param playerNames Map that maps a player to this name
+     * @return the INIT_PLAYERS message
+     */
+    static String initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        return message(MessageId.INIT_PLAYERS, String.join(" ",
+                Serdes.PLAYER_ID_SERDE.serialize(ownId),
+                Serdes.LIST_STRING_SERDE.serialize(List.of(playerNames.get(PlayerId.PLAYER_1), playerNames.get(PlayerId.PLAYER_2)))));
+    }
+
+    /**
+     * @param info the string that contains the information (from class Info)
+     * @return the RECEIVE_INFO message
+     */
+    static String receiveInfo(String info) {
+        return message(MessageId.RECEIVE_INFO, Serdes.STRING_SERDE.serialize(info));
+    }
+
+    /**
+     * @param newState new game state
+     * @param ownState state of the concerned player
+     * @return the UPDATE_STATE message
+     */
+    static String updateState(PublicGameState newState, PlayerState ownState) {
+        return message(MessageId.UPDATE_STATE, String.join(" ",
+                Serdes.PUBLIC_GAME_STATE_SERDE.serialize(newState),
+                Serdes.PLAYER_STATE_SERDE.serialize(ownState)));
+    }
+
+    /**
+     * @param tickets the tickets that have been distributed
+     * @return the SET_INITIAL_TICKETS message
+     */
+    static String setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        return message(MessageId.SET_INITIAL_TICKETS, Serdes.BAG_TICKET_SERDE.serialize(tickets));
+    }
+
+    /**
+     * @param request a decision asked by the game
+     * @return the message asking the decision to the client
+     */
+    static String request(GameEngine.Request request) {
+        switch (request.kind()) {
+            case CHOOSE_INITIAL_TICKETS:
+                return message(MessageId.CHOOSE_INITIAL_TICKETS, null);
+            case NEXT_TURN:
+                return message(MessageId.NEXT_TURN, null);
+            case CHOOSE_TICKETS:
+                return message(MessageId.CHOOSE_TICKETS, Serdes.BAG_TICKET_SERDE.serialize(request.ticketOptions()));
+            case DRAW_SLOT:
+                return message(MessageId.DRAW_SLOT, null);
+            case CLAIMED_ROUTE:
+                return message(MessageId.ROUTE, null);
+            case INITIAL_CLAIM_CARDS:
+                return message(MessageId.CARDS, null);
+            case CHOOSE_ADDITIONAL_CARDS:
+                return message(MessageId.CHOOSE_ADDITIONAL_CARDS, Serdes.LIST_BAG_CARD_SERDE.serialize(request.cardOptions()));
+            default:
+                throw new Error();
+        }
+    }
+
+    /**
+     * @param kind   kind of the decision asked to the client
+     * @param answer the answer of the client
+     * @return the decision of the client
+     */
+    static GameEngine.Decision decision(GameEngine.Kind kind, String answer) {
+        switch (kind) {
+            case CHOOSE_INITIAL_TICKETS:
+            case CHOOSE_TICKETS:
+                return GameEngine.Decision.ofTickets(Serdes.BAG_TICKET_SERDE.deserialize(answer));
+            case NEXT_TURN:
+                return GameEngine.Decision.ofTurnKind(Serdes.TURN_KIND_SERDE.deserialize(answer));
+            case DRAW_SLOT:
+                return GameEngine.Decision.ofSlot(Serdes.INTEGER_SERDE.deserialize(answer));
+            case CLAIMED_ROUTE:
+                return GameEngine.Decision.ofRoute(Serdes.ROUTE_SERDE.deserialize(answer));
+            case INITIAL_CLAIM_CARDS:
+            case CHOOSE_ADDITIONAL_CARDS:
+                return GameEngine.Decision.ofCards(Serdes.BAG_CARD_SERDE.deserialize(answer));
+            default:
+                throw new Error();
+        }
+    }
+}
@@ -1,17 +1,21 @@
 package ch.epfl.tchu.net;
 
+import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.Socket;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
  * Class that represents a remote player client
+ * <p>When the server offers the binary protocol, the client chooses the latest version it speaks itself,
+ * and receives the following messages in that version.</p>
  *
  * @author Albert Troussard (330361)
  * @author Ménélik Nouvellon (328132)
@@ -20,18 +24,35 @@ public class RemotePlayerClient {
     private final Player player;
     private final String host;
     private final int port;
+    private final int maxVersion;
 
     /**
      * <b>Constructor of a RemotePlayerClient</b>
+     * <p>The binary protocol is chosen if the server offers it.</p>
      *
      * @param player Player who will use the client
      * @param host   Id Address of the server
      * @param port   Common port between the player and the server to connect them
      */
     public RemotePlayerClient(Player player, String host, int port) {
+        this(player, host, port, Connection.BINARY_VERSION);
+    }
+
+    /**
+     * <b>Constructor of a RemotePlayerClient</b>
+     *
+     * @param player     Player who will use the client
+     * @param host       Id Address of the server
+     * @param port       Common port between the player and the server to connect them
+     * @param maxVersion latest version of the protocol the client accepts to speak
+     * @throws IllegalArgumentException if the version is not known
+     */
+    public RemotePlayerClient(Player player, String host, int port, int maxVersion) {
+        Preconditions.checkArgument(maxVersion == Connection.TEXT_VERSION || maxVersion == Connection.BINARY_VERSION);
         this.player = player;
         this.host = host;
         this.port = port;
+        this.maxVersion = maxVersion;
     }
 
     /**
@@ -39,123 +60,182 @@ public class RemotePlayerClient {
      */
     public void run() {
         //trying to connect to the server at corresponding port
-        try (Socket s = new Socket(host, port);
-             BufferedReader r =
-                     new BufferedReader(
-                             new InputStreamReader(s.getInputStream(),
-                                     StandardCharsets.US_ASCII));
-             BufferedWriter w =
-                     new BufferedWriter(
-                             new OutputStreamWriter(s.getOutputStream(),
-                                     StandardCharsets.US_ASCII))) {
-            String message;
-            while (((message = r.readLine()) != null)) {
-                //split given message to get each argument separately
-                String[] splitedMessage = message.split(Pattern.quote(" "), -1);
-                MessageId type = MessageId.valueOf(splitedMessage[0]);
-
-                //reacts differently according to the sent MessageId
-                switch (type) {
-                    case INIT_PLAYERS:
-                        //playerId
-                        PlayerId playerId = Serdes.PLAYER_ID_SERDE.deserialize(splitedMessage[1]);
-
-                        //Map<PlayerId, String> playerNames
-                        List<String> players = Serdes.LIST_STRING_SERDE.deserialize(splitedMessage[2]);
-                        Map<PlayerId, String> playerNames = Map.of(PlayerId.PLAYER_1, players.get(0), PlayerId.PLAYER_2, players.get(1));
-
-                        player.initPlayers(playerId, playerNames);
-                        break;
-
-                    case RECEIVE_INFO:
-                        //receiving the message that the player needs to get updated of the progress of the game
-                        String info = Serdes.STRING_SERDE.deserialize(splitedMessage[1]);
-                        player.receiveInfo(info);
-                        break;
-
-                    case UPDATE_STATE:
-                        //receiving the new state to get updated to
-                        PublicGameState newState = Serdes.PUBLIC_GAME_STATE_SERDE.deserialize(splitedMessage[1]);
-                        PlayerState ownState = Serdes.PLAYER_STATE_SERDE.deserialize(splitedMessage[2]);
-                        player.updateState(newState, ownState);
-                        break;
-
-                    case SET_INITIAL_TICKETS:
-                        //receiving proposed tickets
-                        SortedBag<Ticket> tickets = Serdes.BAG_TICKET_SERDE.deserialize(splitedMessage[1]);
-
-                        player.setInitialTicketChoice(tickets);
-                        break;
-
-                    case CHOOSE_INITIAL_TICKETS:
-                        SortedBag<Ticket> t = player.chooseInitialTickets();
-
-                        //sending the tickets the player has chosen
-                        w.write(Serdes.BAG_TICKET_SERDE.serialize(t));
-                        w.write('\n');
-                        w.flush();
-                        break;
-
-                    case NEXT_TURN:
-                        Player.TurnKind turnKind = player.nextTurn();
-
-                        //sending what the player wants to plays
-                        w.write(Serdes.TURN_KIND_SERDE.serialize(turnKind));
-                        w.write('\n');
-                        w.flush();
-                        break;
-
-                    case CHOOSE_TICKETS:
-                        //receiving the options of tickets
-                        SortedBag<Ticket> options = Serdes.BAG_TICKET_SERDE.deserialize(splitedMessage[1]);
-                        SortedBag<Ticket> chosenTickets = player.chooseTickets(options);
-
-                        //sending the tickets the player has chosen
-                        w.write(Serdes.BAG_TICKET_SERDE.serialize(chosenTickets));
-                        w.write('\n');
-                        w.flush();
-                        break;
-
-                    case DRAW_SLOT:
-                        int slot = player.drawSlot();
-
-                        //sending the integer that indicates the slot of the face up cards the player has chosen (-1 if deck is chosen)
-                        w.write(Serdes.INTEGER_SERDE.serialize(slot));
-                        w.write('\n');
-                        w.flush();
-                        break;
-                    case ROUTE:
-                        Route rt = player.claimedRoute();
-
-                        //sending the route the player has chosen
-                        w.write(Serdes.ROUTE_SERDE.serialize(rt));
-                        w.write('\n');
-                        w.flush();
-                        break;
-
-                    case CARDS:
-                        SortedBag<Card> cards = player.initialClaimCards();
-
-                        //sending the cards the player has chosen
-                        w.write(Serdes.BAG_CARD_SERDE.serialize(cards));
-                        w.write('\n');
-                        w.flush();
-                        break;
-
-                    case CHOOSE_ADDITIONAL_CARDS:
-                        //receiving card options
-                        List<SortedBag<Card>> options1 = Serdes.LIST_BAG_CARD_SERDE.deserialize(splitedMessage[1]);
-                        SortedBag<Card> chosenCards = player.chooseAdditionalCards(options1);
-
-                        //sending the cards the player has chosen
-                        w.write(Serdes.BAG_CARD_SERDE.serialize(chosenCards));
-                        w.write('\n');
-                        w.flush();
-                        break;
-                }
+        try (Connection connection = new Connection(new Socket(host, port))) {
+            //the textual protocol is spoken until the server offers another one
+            int version = Connection.TEXT_VERSION;
+            while (connection.awaitMessage()) {
+                if (version == Connection.BINARY_VERSION) handleBinaryMessage(connection, ByteBuffer.wrap(connection.receiveBytes()));
+                else version = handleTextMessage(connection, connection.receive());
             }
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
+
+    /**
+     * <b>Method reacting to a textual message of the server</b>
+     *
+     * @param connection the connection with the server, to which the answer is sent
+     * @param message    the message received
+     * @return the version of the protocol used for the following messages
+     */
+    private int handleTextMessage(Connection connection, String message) {
+        //split given message to get each argument separately
+        String[] splitedMessage = message.split(Pattern.quote(" "), -1);
+        MessageId type = MessageId.valueOf(splitedMessage[0]);
+
+        //reacts differently according to the sent MessageId
+        switch (type) {
+            case INIT_PLAYERS:
+                //playerId
+                PlayerId playerId = Serdes.PLAYER_ID_SERDE.deserialize(splitedMessage[1]);
+
+                //Map<PlayerId, String> playerNames
+                List<String> players = Serdes.LIST_STRING_SERDE.deserialize(splitedMessage[2]);
+                Map<PlayerId, String> playerNames = Map.of(PlayerId.PLAYER_1, players.get(0), PlayerId.PLAYER_2, players.get(1));
+
+                player.initPlayers(playerId, playerNames);
+                break;
+
+            case RECEIVE_INFO:
+                //receiving the message that the player needs to get updated of the progress of the game
+                String info = Serdes.STRING_SERDE.deserialize(splitedMessage[1]);
+                player.receiveInfo(info);
+                break;
+
+            case UPDATE_STATE:
+                //receiving the new state to get updated to
+                PublicGameState newState = Serdes.PUBLIC_GAME_STATE_SERDE.deserialize(splitedMessage[1]);
+                PlayerState ownState = Serdes.PLAYER_STATE_SERDE.deserialize(splitedMessage[2]);
+                player.updateState(newState, ownState);
+                break;
+
+            case SET_INITIAL_TICKETS:
+                //receiving proposed tickets
+                SortedBag<Ticket> tickets = Serdes.BAG_TICKET_SERDE.deserialize(splitedMessage[1]);
+
+                player.setInitialTicketChoice(tickets);
+                break;
+
+            case CHOOSE_INITIAL_TICKETS:
+                //sending the tickets the player has chosen
+                connection.send(Serdes.BAG_TICKET_SERDE.serialize(player.chooseInitialTickets()));
+                break;
+
+            case NEXT_TURN:
+                //sending what the player wants to plays
+                connection.send(Serdes.TURN_KIND_SERDE.serialize(player.nextTurn()));
+                break;
+
+            case CHOOSE_TICKETS:
+                //receiving the options of tickets
+                SortedBag<Ticket> options = Serdes.BAG_TICKET_SERDE.deserialize(splitedMessage[1]);
+
+                //sending the tickets the player has chosen
+                connection.send(Serdes.BAG_TICKET_SERDE.serialize(player.chooseTickets(options)));
+                break;
+
+            case DRAW_SLOT:
+                //sending the integer that indicates the slot of the face up cards the player has chosen (-1 if deck is chosen)
+                connection.send(Serdes.INTEGER_SERDE.serialize(player.drawSlot()));
+                break;
+
+            case ROUTE:
+                //sending the route the player has chosen
+                connection.send(Serdes.ROUTE_SERDE.serialize(player.claimedRoute()));
+                break;
+
+            case CARDS:
+                //sending the cards the player has chosen
+                connection.send(Serdes.BAG_CARD_SERDE.serialize(player.initialClaimCards()));
+                break;
+
+            case CHOOSE_ADDITIONAL_CARDS:
+                //receiving card options
+                List<SortedBag<Card>> options1 = Serdes.LIST_BAG_CARD_SERDE.deserialize(splitedMessage[1]);
+
+                //sending the cards the player has chosen
+                connection.send(Serdes.BAG_CARD_SERDE.serialize(player.chooseAdditionalCards(options1)));
+                break;
+
+            case VERSION:
+                //choosing the latest version spoken by both sides
+                int version = Math.min(maxVersion, Serdes.INTEGER_SERDE.deserialize(splitedMessage[1]));
+                connection.send(Serdes.INTEGER_SERDE.serialize(version));
+                return version;
+
+            default:
+                throw new Error();
+        }
+        return Connection.TEXT_VERSION;
+    }
+
+    /**
+     * <b>Method reacting to a binary message of the server</b>
+     *
+     * @param connection the connection with the server, to which the answer is sent
+     * @param message    the message received
+     * @throws IllegalArgumentException if the message has bytes after its arguments
+     */
+    private void handleBinaryMessage(Connection connection, ByteBuffer message) {
+        MessageId type = MessageId.ALL.get(message.get());
+
+        //reacts differently according to the sent MessageId, the arguments following it
+        switch (type) {
+            case INIT_PLAYERS:
+                PlayerId playerId = BinarySerdes.PLAYER_ID_SERDE.deserialize(message);
+                List<String> players = BinarySerdes.LIST_STRING_SERDE.deserialize(message);
+                player.initPlayers(playerId, Map.of(PlayerId.PLAYER_1, players.get(0), PlayerId.PLAYER_2, players.get(1)));
+                break;
+
+            case RECEIVE_INFO:
+                player.receiveInfo(BinarySerdes.STRING_SERDE.deserialize(message));
+                break;
+
+            case UPDATE_STATE:
+                PublicGameState newState = BinarySerdes.PUBLIC_GAME_STATE_SERDE.deserialize(message);
+                PlayerState ownState = BinarySerdes.PLAYER_STATE_SERDE.deserialize(message);
+                player.updateState(newState, ownState);
+                break;
+
+            case SET_INITIAL_TICKETS:
+                player.setInitialTicketChoice(BinarySerdes.BAG_TICKET_SERDE.deserialize(message));
+                break;
+
+            case CHOOSE_INITIAL_TICKETS:
+                connection.send(BinarySerdes.BAG_TICKET_SERDE.serialize(player.chooseInitialTickets()));
+                break;
+
+            case NEXT_TURN:
+                connection.send(BinarySerdes.TURN_KIND_SERDE.serialize(player.nextTurn()));
+                break;
+
+            case CHOOSE_TICKETS:
+                SortedBag<Ticket> options = BinarySerdes.BAG_TICKET_SERDE.deserialize(message);
+                connection.send(BinarySerdes.BAG_TICKET_SERDE.serialize(player.chooseTickets(options)));
+                break;
+
+            case DRAW_SLOT:
+                connection.send(BinarySerdes.INTEGER_SERDE.serialize(player.drawSlot()));
+                break;
+
+            case ROUTE:
+                connection.send(BinarySerdes.ROUTE_SERDE.serialize(player.claimedRoute()));
+                break;
+
+            case CARDS:
+                connection.send(BinarySerdes.BAG_CARD_SERDE.serialize(player.initialClaimCards()));
+                break;
+
+            case CHOOSE_ADDITIONAL_CARDS:
+                List<SortedBag<Card>> options1 = BinarySerdes.LIST_BAG_CARD_SERDE.deserialize(message);
+                connection.send(BinarySerdes.BAG_CARD_SERDE.serialize(player.chooseAdditionalCards(options1)));
+                break;
+
+            default:
+                //the version is only agreed once, in the textual protocol
+                throw new IllegalArgumentException();
+        }
+        Preconditions.checkArgument(!message.hasRemaining());
+    }
 }
@@ -1,30 +1,81 @@
 package ch.epfl.tchu.net;
 
+import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 
-import java.io.*;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.Socket;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Class that represents a remote player proxy
+ * <p>The messages are sent through a single Connection, and only written to the network when the client
+ * is asked a decision or a new state, or when the proxy is closed. The proxy must be closed at the end
+ * of the game so that the last messages are sent.</p>
+ * <p>Before its first message, the proxy offers the client the latest version of the protocol it speaks,
+ * and the client answers with the version they will use: the messages are then exchanged as text, or in
+ * the more compact binary protocol. Clients which do not know this handshake can only be reached by
+ * a proxy limited to the textual protocol.</p>
  *
  * @author Albert Troussard (330361)
  * @author Ménélik Nouvellon (328132)
  */
-public class RemotePlayerProxy implements Player {
-    private Socket socket;
+public class RemotePlayerProxy implements Player, Closeable {
+    private final Connection connection;
+    private final int maxVersion;
+    //version of the protocol agreed with the client, 0 before the handshake
+    private int version = 0;
 
     /**
      * <b>Constructor of the RemotePlayerProxy</b>
+     * <p>The binary protocol is offered to the client.</p>
      *
-     * @param socket Socket used to communicate through the network with the client by exchanging text messages
+     * @param socket Socket used to communicate through the network with the client
+     * @throws UncheckedIOException if the streams of the socket cannot be obtained
      */
     public RemotePlayerProxy(Socket socket) {
-        this.socket = socket;
+        this(socket, Connection.BINARY_VERSION);
+    }
+
+    /**
+     * <b>Constructor of the RemotePlayerProxy</b>
+     *
+     * @param socket     Socket used to communicate through the network with the client
+     * @param maxVersion latest version of the protocol offered to the client, Connection.TEXT_VERSION to
+     *                   speak the textual protocol without any handshake
+     * @throws IllegalArgumentException if the version is not known
+     * @throws UncheckedIOException     if the streams of the socket cannot be obtained
+     */
+    public RemotePlayerProxy(Socket socket, int maxVersion) {
+        Preconditions.checkArgument(maxVersion == Connection.TEXT_VERSION || maxVersion == Connection.BINARY_VERSION);
+        this.maxVersion = maxVersion;
+        try {
+            this.connection = new Connection(socket);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * <b>Getter of the connection</b>
+     *
+     * @return the connection with the client, giving the number of messages and bytes exchanged
+     */
+    public Connection connection() {
+        return connection;
+    }
+
+    /**
+     * <b>Getter of the version of the protocol</b>
+     *
+     * @return the version of the protocol agreed with the client, 0 if no message has been sent yet
+     */
+    public int version() {
+        return version;
     }
 
     /**
@@ -35,11 +86,8 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
-        String aux1 = Serdes.PLAYER_ID_SERDE.serialize(ownId);
-        String aux2 = Serdes.LIST_STRING_SERDE.serialize(List.of(playerNames.get(PlayerId.PLAYER_1), playerNames.get(PlayerId.PLAYER_2)));
-
-        String s = String.join(" ", List.of(aux1, aux2));
-        sendMessage(MessageId.INIT_PLAYERS, s);
+        if (binary()) sendMessage(BinaryMessages.initPlayers(ownId, playerNames));
+        else sendMessage(Messages.initPlayers(ownId, playerNames));
     }
 
     /**
@@ -49,7 +97,8 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public void receiveInfo(String info) {
-        sendMessage(MessageId.RECEIVE_INFO, Serdes.STRING_SERDE.serialize(info));
+        if (binary()) sendMessage(BinaryMessages.receiveInfo(info));
+        else sendMessage(Messages.receiveInfo(info));
     }
 
     /**
@@ -60,11 +109,10 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public void updateState(PublicGameState newState, PlayerState ownState) {
-        String aux1 = Serdes.PUBLIC_GAME_STATE_SERDE.serialize(newState);
-        String aux2 = Serdes.PLAYER_STATE_SERDE.serialize(ownState);
-        String s = String.join(" ", List.of(aux1, aux2));
-        sendMessage(MessageId.UPDATE_STATE, s);
-
+        if (binary()) sendMessage(BinaryMessages.updateState(newState, ownState));
+        else sendMessage(Messages.updateState(newState, ownState));
+        //the client displays the new state without waiting for its next decision
+        connection.flush();
     }
 
     /**
@@ -74,7 +122,8 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
-        sendMessage(MessageId.SET_INITIAL_TICKETS, Serdes.BAG_TICKET_SERDE.serialize(tickets));
+        if (binary()) sendMessage(BinaryMessages.setInitialTicketChoice(tickets));
+        else sendMessage(Messages.setInitialTicketChoice(tickets));
     }
 
     /**
@@ -84,7 +133,11 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Ticket> chooseInitialTickets() {
-        sendMessage(MessageId.CHOOSE_INITIAL_TICKETS, null);
+        if (binary()) {
+            sendMessage(BinaryMessages.message(MessageId.CHOOSE_INITIAL_TICKETS));
+            return BinarySerdes.BAG_TICKET_SERDE.deserialize(readBinaryMessage());
+        }
+        sendMessage(Messages.message(MessageId.CHOOSE_INITIAL_TICKETS, null));
         return Serdes.BAG_TICKET_SERDE.deserialize(readMessage());
     }
 
@@ -95,7 +148,11 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public TurnKind nextTurn() {
-        sendMessage(MessageId.NEXT_TURN, null);
+        if (binary()) {
+            sendMessage(BinaryMessages.message(MessageId.NEXT_TURN));
+            return BinarySerdes.TURN_KIND_SERDE.deserialize(readBinaryMessage());
+        }
+        sendMessage(Messages.message(MessageId.NEXT_TURN, null));
         return Serdes.TURN_KIND_SERDE.deserialize(readMessage());
     }
 
@@ -107,7 +164,11 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
-        sendMessage(MessageId.CHOOSE_TICKETS, Serdes.BAG_TICKET_SERDE.serialize(options));
+        if (binary()) {
+            sendMessage(BinaryMessages.chooseTickets(options));
+            return BinarySerdes.BAG_TICKET_SERDE.deserialize(readBinaryMessage());
+        }
+        sendMessage(Messages.message(MessageId.CHOOSE_TICKETS, Serdes.BAG_TICKET_SERDE.serialize(options)));
         return Serdes.BAG_TICKET_SERDE.deserialize(readMessage());
     }
 
@@ -118,7 +179,11 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public int drawSlot() {
-        sendMessage(MessageId.DRAW_SLOT, null);
+        if (binary()) {
+            sendMessage(BinaryMessages.message(MessageId.DRAW_SLOT));
+            return BinarySerdes.INTEGER_SERDE.deserialize(readBinaryMessage());
+        }
+        sendMessage(Messages.message(MessageId.DRAW_SLOT, null));
         return Serdes.INTEGER_SERDE.deserialize(readMessage());
     }
 
@@ -129,7 +194,11 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public Route claimedRoute() {
-        sendMessage(MessageId.ROUTE, null);
+        if (binary()) {
+            sendMessage(BinaryMessages.message(MessageId.ROUTE));
+            return BinarySerdes.ROUTE_SERDE.deserialize(readBinaryMessage());
+        }
+        sendMessage(Messages.message(MessageId.ROUTE, null));
         return Serdes.ROUTE_SERDE.deserialize(readMessage());
     }
 
@@ -140,7 +209,11 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Card> initialClaimCards() {
-        sendMessage(MessageId.CARDS, null);
+        if (binary()) {
+            sendMessage(BinaryMessages.message(MessageId.CARDS));
+            return BinarySerdes.BAG_CARD_SERDE.deserialize(readBinaryMessage());
+        }
+        sendMessage(Messages.message(MessageId.CARDS, null));
         return Serdes.BAG_CARD_SERDE.deserialize(readMessage());
     }
 
@@ -152,48 +225,78 @@ public class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
-        sendMessage(MessageId.CHOOSE_ADDITIONAL_CARDS, Serdes.LIST_BAG_CARD_SERDE.serialize(options));
+        if (binary()) {
+            sendMessage(BinaryMessages.chooseAdditionalCards(options));
+            return BinarySerdes.BAG_CARD_SERDE.deserialize(readBinaryMessage());
+        }
+        sendMessage(Messages.message(MessageId.CHOOSE_ADDITIONAL_CARDS, Serdes.LIST_BAG_CARD_SERDE.serialize(options)));
         return Serdes.BAG_CARD_SERDE.deserialize(readMessage());
     }
 
     /**
-     * Method that sends the message to the client
+     * <b>Flush then close the connection with the client</b>
      *
-     * @param id      MessageId that allows the client to know which method he has to deal with
-     * @param message String to send to the client
+     * @throws IOException if the connection cannot be closed
      */
-    private void sendMessage(MessageId id, String message) {
-        String str;
-        //if the method has no argument, it just asks for information from client
-        if (message == null) {
-            str = id.name();
-        }
-        //send the serialized arguments of the method preceded by the method called
-        else {
-            str = String.join(" ", List.of(id.name(), message));
-        }
-        try {
-            BufferedWriter w = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
-            w.write(str);
-            w.write('\n');
-            w.flush();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+    @Override
+    public void close() throws IOException {
+        connection.close();
+    }
+
+    /**
+     * Method that tells if the binary protocol is used, agreeing on the version of the protocol with the client
+     * the first time it is called
+     *
+     * @return true if the messages are binary, false if they are text
+     * @throws IllegalArgumentException if the client chose a version which was not offered
+     */
+    private boolean binary() {
+        if (version == 0) {
+            if (maxVersion == Connection.TEXT_VERSION) {
+                version = Connection.TEXT_VERSION;
+            } else {
+                sendMessage(Messages.message(MessageId.VERSION, Serdes.INTEGER_SERDE.serialize(maxVersion)));
+                int chosen = Serdes.INTEGER_SERDE.deserialize(readMessage());
+                Preconditions.checkArgument(Connection.TEXT_VERSION <= chosen && chosen <= maxVersion);
+                version = chosen;
+            }
         }
+        return version == Connection.BINARY_VERSION;
+    }
+
+    /**
+     * Method that sends the message to the client, at the next flush of the connection
+     *
+     * @param message the message to send to the client, built by Messages
+     */
+    private void sendMessage(String message) {
+        connection.send(message);
     }
 
     /**
-     * Method that reads message sent from the client
+     * Method that sends the binary message to the client, at the next flush of the connection
+     *
+     * @param message the message to send to the client, built by BinaryMessages
+     */
+    private void sendMessage(byte[] message) {
+        connection.send(message);
+    }
+
+    /**
+     * Method that reads message sent from the client, after having sent him the waiting messages
      *
      * @return message from client
      */
     private String readMessage() {
-        try {
-            BufferedReader r = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
-            return r.readLine();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        return connection.receive();
     }
 
+    /**
+     * Method that reads binary message sent from the client, after having sent him the waiting messages
+     *
+     * @return message from client
+     */
+    private byte[] readBinaryMessage() {
+        return connection.receiveBytes();
+    }
 }
@@ -0,0 +1,261 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * <b>Class representing a server hosting many games on a single thread</b>
+ * <p>The connections are non-blocking and watched by a selector: the thread running the server reads the
+ * messages of the clients as they arrive and gives them to the GameEngine of their game, which answers
+ * immediately with the next messages to send. No thread is ever waiting for a client, so that the number
+ * of connections is not limited by the number of threads. The clients are paired in the order of their
+ * arrival, and use the textual protocol of RemotePlayerProxy: the binary protocol is not offered, so that
+ * RemotePlayerClient keeps speaking text.</p>
+ * <p>A game is interrupted when the player who has to decide stays silent longer than the idle timeout, as
+ * when one of its clients sends an invalid message or a decision the rules do not allow.</p>
+ * <p>Arguments of the main program (all optional): port, idle timeout in seconds.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class SelectorServer implements Closeable {
+    private static final int REPORT_PERIOD_SECONDS = 10;
+    //a player silent during this time when it has to decide is considered as disconnected
+    private static final int DEFAULT_IDLE_TIMEOUT_SECONDS = 10 * 60;
+    //number of times the silent players are looked for during an idle timeout
+    private static final int IDLE_CHECKS_PER_TIMEOUT = 10;
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+    private static final Map<PlayerId, String> PLAYER_NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final long idleTimeoutNanos;
+    private volatile boolean running = true;
+    private final AtomicInteger activeGames = new AtomicInteger();
+    private final AtomicInteger finishedGames = new AtomicInteger();
+    private final AtomicInteger failedGames = new AtomicInteger();
+
+    //only used by the thread running the server
+    private final SplittableRandom seeds = new SplittableRandom();
+    private final Set<GameSession> sessions = new HashSet<>();
+    private MessageChannel waitingClient;
+
+    /**
+     * <b>Constructor of a SelectorServer whose players may stay silent for 10 minutes</b>
+     *
+     * @param port port on which the clients connect
+     * @throws IOException if the port cannot be opened
+     */
+    public SelectorServer(int port) throws IOException {
+        this(port, TimeUnit.SECONDS.toMillis(DEFAULT_IDLE_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * <b>Constructor of a SelectorServer</b>
+     *
+     * @param port              port on which the clients connect
+     * @param idleTimeoutMillis time during which the player who has to decide may stay silent
+     * @throws IOException              if the port cannot be opened
+     * @throws IllegalArgumentException if the timeout is not positive
+     */
+    public SelectorServer(int port, long idleTimeoutMillis) throws IOException {
+        Preconditions.checkArgument(idleTimeoutMillis > 0);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * <b>Serve the clients until the server is closed</b>
+     *
+     * @throws IOException in case of error of the selector or of the server socket
+     */
+    public void run() throws IOException {
+        long checkPeriodMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) / IDLE_CHECKS_PER_TIMEOUT, 1);
+        long nextCheck = System.nanoTime();
+        try {
+            while (running) {
+                selector.select(checkPeriodMillis);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) accept();
+                    else handle((MessageChannel) key.attachment(), key);
+                }
+                long now = System.nanoTime();
+                if (now - nextCheck >= 0) {
+                    abortIdleSessions(now);
+                    nextCheck = now + TimeUnit.MILLISECONDS.toNanos(checkPeriodMillis);
+                }
+            }
+        } finally {
+            for (GameSession session : sessions) session.abort();
+            if (waitingClient != null) waitingClient.close();
+            serverChannel.close();
+            selector.close();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel client = serverChannel.accept();
+        if (client == null) return;
+        client.configureBlocking(false);
+        client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = client.register(selector, SelectionKey.OP_READ);
+        MessageChannel channel = new MessageChannel(client, key);
+        key.attach(channel);
+
+        //a client which left while waiting is replaced
+        if (waitingClient == null || !waitingClient.isOpen()) {
+            waitingClient = channel;
+            return;
+        }
+        MessageChannel opponent = waitingClient;
+        waitingClient = null;
+        GameSession session = null;
+        try {
+            session = new GameSession(Map.of(PLAYER_1, opponent, PLAYER_2, channel), PLAYER_NAMES, TICKETS, GameRandom.of(seeds.nextLong()));
+            sessions.add(session);
+            activeGames.incrementAndGet();
+            session.flush();
+        } catch (IOException | RuntimeException e) {
+            if (session == null) {
+                opponent.close();
+                channel.close();
+            } else {
+                abort(session);
+            }
+        }
+    }
+
+    private void handle(MessageChannel channel, SelectionKey key) {
+        GameSession session = channel.session();
+        try {
+            if (key.isReadable()) {
+                for (String message : channel.read()) {
+                    //the clients only speak when they are asked something
+                    if (session == null) throw new IOException("message before the beginning of the game");
+                    session.onMessage(channel, message);
+                }
+            }
+            if (session == null) {
+                channel.flush();
+                return;
+            }
+            session.flush();
+            if (session.isFinished() && sessions.remove(session)) {
+                activeGames.decrementAndGet();
+                finishedGames.incrementAndGet();
+            }
+        } catch (IOException | RuntimeException e) {
+            //a client disconnected, sent an invalid message or a decision the engine rejected: the engine
+            //is left unchanged, but the client is not trusted any more
+            if (session == null) {
+                channel.close();
+                if (channel == waitingClient) waitingClient = null;
+            } else {
+                abort(session);
+            }
+        }
+    }
+
+    private void abortIdleSessions(long now) {
+        List<GameSession> idle = new ArrayList<>();
+        for (GameSession session : sessions) {
+            MessageChannel awaited = session.awaitedChannel();
+            if (awaited != null && now - awaited.lastActivity() > idleTimeoutNanos) idle.add(session);
+        }
+        for (GameSession session : idle) abort(session);
+    }
+
+    private void abort(GameSession session) {
+        session.abort();
+        if (sessions.remove(session)) {
+            activeGames.decrementAndGet();
+            failedGames.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of games being played
+     */
+    public int activeGames() {
+        return activeGames.get();
+    }
+
+    /**
+     * @return the number of games played until the end
+     */
+    public int finishedGames() {
+        return finishedGames.get();
+    }
+
+    /**
+     * @return the number of games interrupted, for example by the disconnection of a client
+     */
+    public int failedGames() {
+        return failedGames.get();
+    }
+
+    /**
+     * @return a description of the activity of the server
+     */
+    public String report() {
+        return String.format("active: %d, finished: %d, failed: %d", activeGames(), finishedGames(), failedGames());
+    }
+
+    /**
+     * <b>Stop the server</b>
+     * <p>The thread running the server interrupts the games and closes all the connections.</p>
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length >= 1 ? Integer.parseInt(args[0]) : LobbyServer.DEFAULT_PORT;
+        int idleTimeoutSeconds = args.length >= 2 ? Integer.parseInt(args[1]) : DEFAULT_IDLE_TIMEOUT_SECONDS;
+
+        SelectorServer server = new SelectorServer(port, TimeUnit.SECONDS.toMillis(idleTimeoutSeconds));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tchu-selector-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> System.out.println(server.report()),
+                REPORT_PERIOD_SECONDS, REPORT_PERIOD_SECONDS, TimeUnit.SECONDS);
+        System.out.println("Selector server listening on port " + port + ", idle timeout of " + idleTimeoutSeconds + " s");
+        server.run();
+    }
+}
@@ -4,6 +4,7 @@ import ch.epfl.tchu.SortedBag;
 
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -65,6 +66,24 @@ public interface Serde<C> {
                 s -> s.equals("") ? null : list.get(Integer.parseInt(s)));
     }
 
+    /**
+     * <b>Returning Serde that can serialize a given element of a list or deserialize a string of a <i>list</i>'s element</b>
+     * <p>The index of an element is given by <i>index</i> instead of being searched in the list.</p>
+     *
+     * @param list  list of all values in an enumerated set of values
+     * @param index function giving the index of an element in <i>list</i>, negative if it is not in the list
+     * @param <T>   type of object
+     * @return Serde matching a given element of the <i>list</i>
+     */
+    static <T> Serde<T> oneOf(List<T> list, ToIntFunction<T> index) {
+        return of(t -> {
+                    if (t == null) return "";
+                    int i = index.applyAsInt(t);
+                    return String.valueOf(i >= 0 ? i : list.indexOf(t));
+                },
+                s -> s.equals("") ? null : list.get(Integer.parseInt(s)));
+    }
+
     /**
      * <b>Returning a Serde capable of (de) serializing lists of values (de) serialized by the given serde </b>
      *
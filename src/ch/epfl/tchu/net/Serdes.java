@@ -26,32 +26,32 @@ public class Serdes {
      */
     public final static Serde<String> STRING_SERDE = Serde.of(
             s -> Base64.getEncoder().encodeToString(s.getBytes(StandardCharsets.UTF_8)),
-            s -> new String(Base64.getDecoder().decode(s)));
+            s -> new String(Base64.getDecoder().decode(s), StandardCharsets.UTF_8));
 
     /**
      * Serde used for playerId
      */
-    public final static Serde<PlayerId> PLAYER_ID_SERDE = Serde.oneOf(PlayerId.ALL);
+    public final static Serde<PlayerId> PLAYER_ID_SERDE = Serde.oneOf(PlayerId.ALL, PlayerId::ordinal);
 
     /**
      * Serde used for turnKind enumeration
      */
-    public final static Serde<Player.TurnKind> TURN_KIND_SERDE = Serde.oneOf(Player.TurnKind.ALL);
+    public final static Serde<Player.TurnKind> TURN_KIND_SERDE = Serde.oneOf(Player.TurnKind.ALL, Player.TurnKind::ordinal);
 
     /**
      * Serde used for Card
      */
-    public final static Serde<Card> CARD_SERDE = Serde.oneOf(Card.ALL);
+    public final static Serde<Card> CARD_SERDE = Serde.oneOf(Card.ALL, Card::ordinal);
 
     /**
      * Serde used for Route
      */
-    public final static Serde<Route> ROUTE_SERDE = Serde.oneOf(ChMap.routes());
+    public final static Serde<Route> ROUTE_SERDE = Serde.oneOf(ChMap.routes(), Route::index);
 
     /**
      * Serde used for Ticket
      */
-    public final static Serde<Ticket> TICKET_SERDE = Serde.oneOf(ChMap.tickets());
+    public final static Serde<Ticket> TICKET_SERDE = Serde.oneOf(ChMap.tickets(), Ticket::index);
 
     /**
      * Serde used for a list of Strings
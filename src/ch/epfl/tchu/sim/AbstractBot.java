@@ -0,0 +1,126 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * <b>Base of the players run by the simulator</b>
+ * <p>Keeps the information given by the game (identity, last states, initial tickets) so that the bots
+ * only have to implement their decisions. The informations as text are ignored. New bots extend this class
+ * to be run by the Simulator.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public abstract class AbstractBot implements Player {
+    protected final SplittableRandom rng;
+    protected PlayerId ownId;
+    protected PublicGameState gameState;
+    protected PlayerState ownState;
+    protected SortedBag<Ticket> initialTickets;
+    //number of times the bot has been asked what to do
+    private int turns;
+
+    /**
+     * Constructor of an AbstractBot
+     *
+     * @param rng source of randomness of the bot, a bot being deterministic for a given <i>rng</i>
+     */
+    protected AbstractBot(SplittableRandom rng) {
+        this.rng = rng;
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        this.ownId = ownId;
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        this.initialTickets = tickets;
+    }
+
+    @Override
+    public final TurnKind nextTurn() {
+        turns++;
+        return chooseTurn();
+    }
+
+    /**
+     * @return the type of action the bot wants to perform during this turn
+     */
+    protected abstract TurnKind chooseTurn();
+
+    /**
+     * @return the number of turns played by the bot
+     */
+    public int turns() {
+        return turns;
+    }
+
+    /**
+     * @return the last state of the game received
+     */
+    public PublicGameState gameState() {
+        return gameState;
+    }
+
+    /**
+     * @return the last state of the bot received
+     */
+    public PlayerState ownState() {
+        return ownState;
+    }
+
+    /**
+     * @return if drawing tickets is possible, ie if there are enough tickets to be shown
+     */
+    protected boolean canDrawTickets() {
+        return gameState.ticketsCount() >= Constants.IN_GAME_TICKETS_COUNT;
+    }
+
+    /**
+     * @return a slot from which a card can be drawn: the deck if it is not empty, a face up card otherwise
+     */
+    protected int randomSlot() {
+        if (!gameState.cardState().isDeckEmpty() && rng.nextInt(Constants.FACE_UP_CARDS_COUNT + 1) == 0) return Constants.DECK_SLOT;
+        return Constants.FACE_UP_CARD_SLOTS.get(rng.nextInt(Constants.FACE_UP_CARDS_COUNT));
+    }
+
+    /**
+     * @param list a non empty list
+     * @return an element of <i>list</i> chosen uniformly
+     */
+    protected <E> E randomElement(List<E> list) {
+        return list.get(rng.nextInt(list.size()));
+    }
+
+    /**
+     * @param options tickets to choose from
+     * @param minimum minimal number of tickets to keep
+     * @return a random subset of <i>options</i> of at least <i>minimum</i> tickets
+     */
+    protected SortedBag<Ticket> randomTickets(SortedBag<Ticket> options, int minimum) {
+        int count = minimum + rng.nextInt(options.size() - minimum + 1);
+        //the first elements of a partially shuffled list (the subsets of a SortedBag are not in a deterministic order)
+        List<Ticket> tickets = new ArrayList<>(options.toList());
+        for (int i = 0; i < count; i++) Collections.swap(tickets, i, i + rng.nextInt(tickets.size() - i));
+        return SortedBag.of(tickets.subList(0, count));
+    }
+}
@@ -0,0 +1,62 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.Deck;
+
+import java.util.SplittableRandom;
+
+/**
+ * <b>Class that contains the main program measuring the cost of drawing from a Deck</b>
+ * <p>Draws all the cards of shuffled decks of the whole game one at a time, as the game does, and prints
+ * the mean cost of a draw by position in the deck. The cost must stay the same from the first to the last
+ * card: a Deck only moves an index in the array it shares with the decks it was drawn from.</p>
+ * <p>Arguments (all optional): number of measured decks, number of decks drawn before measuring.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class DeckBenchmark {
+    private static final int BUCKET_SIZE = 10;
+
+    private DeckBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int decks = args.length >= 1 ? Integer.parseInt(args[0]) : 200_000;
+        int warmUp = args.length >= 2 ? Integer.parseInt(args[1]) : 50_000;
+
+        SplittableRandom rng = new SplittableRandom(2021);
+        int size = Constants.ALL_CARDS.size();
+        int buckets = (size + BUCKET_SIZE - 1) / BUCKET_SIZE;
+        long[] nanos = new long[buckets];
+        //cost of the measure itself, removed from each bucket
+        long overhead = 0;
+        //read at the end so that the draws cannot be removed by the compiler
+        int checksum = 0;
+
+        for (int d = 0; d < warmUp + decks; d++) {
+            Deck<Card> deck = Deck.of(Constants.ALL_CARDS, rng);
+            boolean measured = d >= warmUp;
+            for (int bucket = 0; !deck.isEmpty(); bucket++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < BUCKET_SIZE && !deck.isEmpty(); i++) {
+                    checksum += deck.topCard().ordinal();
+                    deck = deck.withoutTopCard();
+                }
+                if (measured) nanos[bucket] += System.nanoTime() - start;
+            }
+            long start = System.nanoTime();
+            if (measured) overhead += System.nanoTime() - start;
+        }
+
+        System.out.printf("%d decks of %d cards%n", decks, size);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int first = bucket * BUCKET_SIZE;
+            int count = Math.min(BUCKET_SIZE, size - first);
+            System.out.printf("cards %3d to %3d: %6.1f ns/draw%n",
+                    first, first + count - 1, (nanos[bucket] - overhead) / (double) decks / count);
+        }
+        System.out.printf("checksum: %d%n", checksum);
+    }
+}
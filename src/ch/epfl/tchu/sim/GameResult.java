@@ -0,0 +1,112 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.PlayerId;
+
+import java.util.Map;
+
+/**
+ * <b>Class representing the result of a simulated game</b>
+ * <p>The values of the players are indexed by the ordinal of their PlayerId.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class GameResult {
+    private final long seed;
+    private final RuntimeException failure;
+    private final int[] points, routes;
+    private final int turns;
+
+    /**
+     * Private constructor of a GameResult
+     *
+     * @param seed    seed of the game
+     * @param failure exception which interrupted the game, null if it is finished
+     * @param points  final points of the players
+     * @param routes  number of routes claimed by the players
+     * @param turns   number of turns played
+     */
+    private GameResult(long seed, RuntimeException failure, int[] points, int[] routes, int turns) {
+        this.seed = seed;
+        this.failure = failure;
+        this.points = points;
+        this.routes = routes;
+        this.turns = turns;
+    }
+
+    /**
+     * <b>Compute the result of a finished game</b>
+     *
+     * @param seed        seed of the game
+     * @param finalPoints final points of the players, as computed by the game
+     * @param player1     bot of the first player, having received the final state
+     * @param player2     bot of the second player, having received the final state
+     * @return the result of the game
+     */
+    public static GameResult of(long seed, Map<PlayerId, Integer> finalPoints, AbstractBot player1, AbstractBot player2) {
+        int[] points = {finalPoints.get(PlayerId.PLAYER_1), finalPoints.get(PlayerId.PLAYER_2)};
+        int[] routes = {player1.ownState().routes().size(), player2.ownState().routes().size()};
+        return new GameResult(seed, null, points, routes, player1.turns() + player2.turns());
+    }
+
+    /**
+     * @param seed    seed of the game
+     * @param failure exception which interrupted the game
+     * @return the result of a game interrupted by an exception
+     */
+    public static GameResult failed(long seed, RuntimeException failure) {
+        return new GameResult(seed, failure, new int[PlayerId.COUNT], new int[PlayerId.COUNT], 0);
+    }
+
+    /**
+     * @return the seed of the game, with which it can be played again
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * @return if the game has been interrupted by an exception
+     */
+    public boolean failed() {
+        return failure != null;
+    }
+
+    /**
+     * @return the exception which interrupted the game, null if it is finished
+     */
+    public RuntimeException failure() {
+        return failure;
+    }
+
+    /**
+     * @param playerId a player
+     * @return the final points of the player
+     */
+    public int points(PlayerId playerId) {
+        return points[playerId.ordinal()];
+    }
+
+    /**
+     * @param playerId a player
+     * @return the number of routes claimed by the player
+     */
+    public int routes(PlayerId playerId) {
+        return routes[playerId.ordinal()];
+    }
+
+    /**
+     * @return the number of turns played by both players
+     */
+    public int turns() {
+        return turns;
+    }
+
+    /**
+     * @return the winner of the game, null in case of equality
+     */
+    public PlayerId winner() {
+        if (points[0] == points[1]) return null;
+        return points[0] > points[1] ? PlayerId.PLAYER_1 : PlayerId.PLAYER_2;
+    }
+}
@@ -0,0 +1,79 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * <b>Bot choosing uniformly among its legal actions</b>
+ * <p>Claims a random claimable route one time out of two, otherwise draws cards (or tickets, rarely).
+ * Used as a baseline to evaluate the other bots and to play games as fast as possible.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class RandomBot extends AbstractBot {
+    //one chance out of TICKETS_ODDS to draw tickets when possible
+    private static final int TICKETS_ODDS = 20;
+
+    private Route route;
+    private SortedBag<Card> initialCards;
+
+    /**
+     * Constructor of a RandomBot
+     *
+     * @param rng source of randomness of the bot
+     */
+    public RandomBot(SplittableRandom rng) {
+        super(rng);
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return randomTickets(initialTickets, initialTickets.size() - Constants.DISCARDABLE_TICKETS_COUNT);
+    }
+
+    @Override
+    protected TurnKind chooseTurn() {
+        BitSet claimable = ownState.claimableRoutes(gameState);
+        boolean canDrawCards = gameState.canDrawCards();
+        if (canDrawTickets() && (rng.nextInt(TICKETS_ODDS) == 0 || (claimable.isEmpty() && !canDrawCards))) {
+            return TurnKind.DRAW_TICKETS;
+        }
+        if (!claimable.isEmpty() && (!canDrawCards || rng.nextBoolean())) {
+            int[] indexes = claimable.stream().toArray();
+            route = ChMap.routes().get(indexes[rng.nextInt(indexes.length)]);
+            initialCards = randomElement(ownState.possibleClaimCards(route));
+            return TurnKind.CLAIM_ROUTE;
+        }
+        return TurnKind.DRAW_CARDS;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return randomTickets(options, options.size() - Constants.DISCARDABLE_TICKETS_COUNT);
+    }
+
+    @Override
+    public int drawSlot() {
+        return randomSlot();
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return route;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return initialCards;
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return rng.nextBoolean() ? randomElement(options) : SortedBag.of();
+    }
+}
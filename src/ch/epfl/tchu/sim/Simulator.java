@@ -0,0 +1,131 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * <b>Class that contains the main program of the headless simulator</b>
+ * <p>Plays games between bots on a work-stealing pool, without any graphical interface, and prints
+ * a summary of their results. Each game is derived from its own seed, so a game can be played again
+ * alone with the same bots.</p>
+ * <p>Arguments (all optional): number of games, number of threads, seed, bot of the first player,
+ * bot of the second player (among {@value #BOT_NAMES}).</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class Simulator {
+    private static final String BOT_NAMES = "random, ticket";
+    private static final Map<String, Function<SplittableRandom, AbstractBot>> BOTS =
+            Map.of("random", RandomBot::new, "ticket", TicketBot::new);
+
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+    private static final Map<PlayerId, String> PLAYER_NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    private Simulator() {
+    }
+
+    public static void main(String[] args) {
+        int games = args.length >= 1 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length >= 2 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length >= 3 ? Long.parseLong(args[2]) : 2021;
+        String bot1 = args.length >= 4 ? args[3] : "random";
+        String bot2 = args.length >= 5 ? args[4] : "ticket";
+        if (!BOTS.containsKey(bot1) || !BOTS.containsKey(bot2)) {
+            System.err.println("Unknown bot, expected one of: " + BOT_NAMES);
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        List<GameResult> results = run(games, threads, seed, BOTS.get(bot1), BOTS.get(bot2));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games (%s vs %s) on %d threads in %.2f s: %.0f games/s%n",
+                games, bot1, bot2, threads, seconds, games / seconds);
+        report(results);
+    }
+
+    /**
+     * <b>Play games between two bots in parallel</b>
+     *
+     * @param games       number of games to play
+     * @param parallelism number of threads of the pool
+     * @param seed        seed from which the seeds of the games are derived
+     * @param bot1        creates the bot of the first player from its source of randomness
+     * @param bot2        creates the bot of the second player from its source of randomness
+     * @return the results of the games, in the order of their seeds
+     */
+    public static List<GameResult> run(int games, int parallelism, long seed,
+                                       Function<SplittableRandom, AbstractBot> bot1,
+                                       Function<SplittableRandom, AbstractBot> bot2) {
+        long[] seeds = new SplittableRandom(seed).longs(games).toArray();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            //a parallel stream started from a task of the pool runs its tasks in this pool
+            return pool.submit(() -> Arrays.stream(seeds)
+                    .parallel()
+                    .mapToObj(s -> play(s, bot1, bot2))
+                    .collect(Collectors.toList()))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * <b>Play a single game</b>
+     *
+     * @param seed seed of the game, the game and the bots being derived from it
+     * @param bot1 creates the bot of the first player from its source of randomness
+     * @param bot2 creates the bot of the second player from its source of randomness
+     * @return the result of the game
+     */
+    public static GameResult play(long seed, Function<SplittableRandom, AbstractBot> bot1,
+                                  Function<SplittableRandom, AbstractBot> bot2) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        GameRandom random = GameRandom.of(rng.nextLong());
+        AbstractBot player1 = bot1.apply(rng.split());
+        AbstractBot player2 = bot2.apply(rng.split());
+        Map<PlayerId, Integer> points;
+        try {
+            //the order of the players given to the game must not depend on the JVM
+            Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+            players.put(PLAYER_1, player1);
+            players.put(PLAYER_2, player2);
+            points = Game.play(players, PLAYER_NAMES, TICKETS, random);
+        } catch (RuntimeException e) {
+            //a bot without any legal action (or a bug) must not stop the other games, the exception is reported
+            return GameResult.failed(seed, e);
+        }
+        return GameResult.of(seed, points, player1, player2);
+    }
+
+    //prints the averages of the results
+    private static void report(List<GameResult> results) {
+        List<GameResult> finished = results.stream().filter(r -> !r.failed()).collect(Collectors.toList());
+        int count = Math.max(finished.size(), 1);
+        System.out.printf("failed: %d%n", results.size() - finished.size());
+        for (PlayerId id : PlayerId.ALL) {
+            long wins = finished.stream().filter(r -> r.winner() == id).count();
+            double points = finished.stream().mapToInt(r -> r.points(id)).sum() / (double) count;
+            double routes = finished.stream().mapToInt(r -> r.routes(id)).sum() / (double) count;
+            System.out.printf("%s: %d wins, %.1f points, %.1f routes%n", id, wins, points, routes);
+        }
+        System.out.printf("draws: %d%n", finished.stream().filter(r -> r.winner() == null).count());
+        System.out.printf("turns: %.1f%n", finished.stream().mapToInt(GameResult::turns).sum() / (double) count);
+        results.stream().filter(GameResult::failed).limit(5)
+                .forEach(r -> System.out.printf("failed seed: %d: %s%n", r.seed(), r.failure()));
+    }
+}
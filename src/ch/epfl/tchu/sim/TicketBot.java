@@ -0,0 +1,155 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * <b>Bot trying to fulfill its tickets</b>
+ * <p>Keeps the tickets which are the cheapest to link, then claims the routes of the shortest paths between
+ * the stations of its tickets, avoiding the routes claimed by the opponent. The cards are drawn among the
+ * face up cards if one of them is useful for these routes. Once its tickets are fulfilled, claims the longest
+ * claimable routes.</p>
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public final class TicketBot extends AbstractBot {
+    //distances avoiding the routes of the opponent, computed again when he claims new routes
+    private StationDistances distances = ChMap.distances();
+    private int blockedCount = 0;
+
+    private Route route;
+    private SortedBag<Card> initialCards;
+
+    /**
+     * Constructor of a TicketBot
+     *
+     * @param rng source of randomness of the bot
+     */
+    public TicketBot(SplittableRandom rng) {
+        super(rng);
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return cheapestTickets(initialTickets, initialTickets.size() - Constants.DISCARDABLE_TICKETS_COUNT);
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return cheapestTickets(options, options.size() - Constants.DISCARDABLE_TICKETS_COUNT);
+    }
+
+    @Override
+    protected TurnKind chooseTurn() {
+        updateDistances();
+        BitSet claimable = ownState.claimableRoutes(gameState);
+        List<Route> wanted = wantedRoutes();
+
+        Route best = null;
+        for (Route r : wanted) {
+            if (claimable.get(r.index()) && (best == null || r.length() > best.length())) best = r;
+        }
+        //without anything to connect, the longest routes bring the most points
+        if (best == null && (wanted.isEmpty() || !gameState.canDrawCards())) {
+            for (int i = claimable.nextSetBit(0); i >= 0; i = claimable.nextSetBit(i + 1)) {
+                Route r = ChMap.routes().get(i);
+                if (best == null || r.length() > best.length()) best = r;
+            }
+        }
+        if (best != null) {
+            route = best;
+            //the cards with the fewest locomotives come first
+            initialCards = ownState.possibleClaimCards(best).get(0);
+            return TurnKind.CLAIM_ROUTE;
+        }
+        if (gameState.canDrawCards()) return TurnKind.DRAW_CARDS;
+        return canDrawTickets() ? TurnKind.DRAW_TICKETS : TurnKind.DRAW_CARDS;
+    }
+
+    @Override
+    public int drawSlot() {
+        for (Route r : wantedRoutes()) {
+            for (int slot : Constants.FACE_UP_CARD_SLOTS) {
+                Card card = gameState.cardState().faceUpCard(slot);
+                if (card != Card.LOCOMOTIVE && r.color() != null && card.color() == r.color()) return slot;
+            }
+        }
+        return gameState.cardState().isDeckEmpty() ? randomSlot() : Constants.DECK_SLOT;
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return route;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return initialCards;
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return options.get(0);
+    }
+
+    //takes the routes of the opponent, and the routes parallel to them, into account
+    private void updateDistances() {
+        List<Route> opponentRoutes = gameState.playerState(ownId.next()).routes();
+        if (opponentRoutes.size() != blockedCount) {
+            RouteGraph graph = ChMap.graph();
+            BitSet blocked = new BitSet(graph.routeCount());
+            for (Route r : opponentRoutes) {
+                int group = graph.parallelGroup(r.index());
+                for (int i = 0; i < graph.groupSize(group); i++) blocked.set(graph.groupRoute(group, i));
+            }
+            distances = distances.withBlockedRoutes(blocked);
+            blockedCount = opponentRoutes.size();
+        }
+    }
+
+    //the routes still to claim on the shortest paths of the tickets which are not fulfilled
+    private List<Route> wantedRoutes() {
+        StationConnectivity connectivity = ownState.connectivity();
+        List<Route> wanted = new ArrayList<>();
+        for (Ticket ticket : ownState.tickets()) {
+            Trip trip = cheapestTrip(ticket);
+            if (trip == null || connectivity.connected(trip.from(), trip.to())) continue;
+            for (Route r : distances.path(trip.from(), trip.to())) {
+                //a route between already connected stations is useless (or parallel to a claimed one)
+                if (!connectivity.connected(r.station1(), r.station2()) && r.length() <= ownState.carCount()) wanted.add(r);
+            }
+        }
+        return wanted;
+    }
+
+    //the trip of the ticket with the fewest cars to link, null if no trip can be linked
+    private Trip cheapestTrip(Ticket ticket) {
+        Trip cheapest = null;
+        for (Trip trip : ticket.getTrips()) {
+            int cars = distances.cars(trip.from(), trip.to());
+            if (cars != StationDistances.UNREACHABLE
+                    && (cheapest == null || cars < distances.cars(cheapest.from(), cheapest.to()))) cheapest = trip;
+        }
+        return cheapest;
+    }
+
+    //the <i>count</i> tickets of <i>options</i> with the cheapest trips
+    private SortedBag<Ticket> cheapestTickets(SortedBag<Ticket> options, int count) {
+        List<Ticket> tickets = new ArrayList<>(options.toList());
+        tickets.sort(Comparator.comparingInt(this::cost));
+        return SortedBag.of(tickets.subList(0, count));
+    }
+
+    //number of cars to link the stations of the ticket
+    private int cost(Ticket ticket) {
+        Trip trip = cheapestTrip(ticket);
+        return trip == null ? StationDistances.UNREACHABLE : distances.cars(trip.from(), trip.to());
+    }
+}
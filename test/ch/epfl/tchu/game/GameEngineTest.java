@@ -0,0 +1,114 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of GameEngine
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public class GameEngineTest {
+    private static final Map<PlayerId, String> PLAYER_NAMES = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    private static final class SilentInformer implements PlayerInformer {
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        }
+    }
+
+    //an engine whose players kept all their initial tickets, waiting for the first turn
+    private static GameEngine engineAtFirstTurn(long seed) {
+        Map<PlayerId, PlayerInformer> informers = new EnumMap<>(PlayerId.class);
+        for (PlayerId id : PlayerId.ALL) informers.put(id, new SilentInformer());
+        GameEngine engine = GameEngine.start(informers, PLAYER_NAMES, SortedBag.of(ChMap.tickets()), GameRandom.of(seed));
+        while (engine.pendingRequest().kind() == GameEngine.Kind.CHOOSE_INITIAL_TICKETS) {
+            engine.step(GameEngine.Decision.ofTickets(engine.pendingRequest().ticketOptions()));
+        }
+        return engine;
+    }
+
+    @Test
+    void stepRejectsADecisionOfAnotherKind() {
+        GameEngine engine = engineAtFirstTurn(1);
+        engine.step(GameEngine.Decision.ofTurnKind(Player.TurnKind.DRAW_CARDS));
+        PlayerState before = engine.gameState().currentPlayerState();
+
+        assertThrows(IllegalArgumentException.class, () -> engine.step(GameEngine.Decision.ofTickets(SortedBag.of())));
+        assertThrows(IllegalArgumentException.class, () -> engine.step(GameEngine.Decision.ofCards(SortedBag.of())));
+        assertEquals(before.cards(), engine.gameState().currentPlayerState().cards());
+        assertEquals(GameEngine.Kind.DRAW_SLOT, engine.pendingRequest().kind());
+    }
+
+    @Test
+    void stepRejectsASlotWhichDoesNotExist() {
+        GameEngine engine = engineAtFirstTurn(2);
+        engine.step(GameEngine.Decision.ofTurnKind(Player.TurnKind.DRAW_CARDS));
+        assertThrows(IllegalArgumentException.class, () -> engine.step(GameEngine.Decision.ofSlot(Constants.FACE_UP_CARDS_COUNT)));
+        assertThrows(IllegalArgumentException.class, () -> engine.step(GameEngine.Decision.ofSlot(-2)));
+        engine.step(GameEngine.Decision.ofSlot(Constants.DECK_SLOT));
+    }
+
+    @Test
+    void stepRejectsTicketsWhichWereNotOffered() {
+        Map<PlayerId, PlayerInformer> informers = new EnumMap<>(PlayerId.class);
+        for (PlayerId id : PlayerId.ALL) informers.put(id, new SilentInformer());
+        GameEngine engine = GameEngine.start(informers, PLAYER_NAMES, SortedBag.of(ChMap.tickets()), GameRandom.of(3));
+        SortedBag<Ticket> options = engine.pendingRequest().ticketOptions();
+        Ticket other = ChMap.tickets().stream().filter(t -> !options.contains(t)).findFirst().orElseThrow();
+
+        assertThrows(IllegalArgumentException.class, () -> engine.step(GameEngine.Decision.ofTickets(SortedBag.of(other))));
+        //too many tickets discarded
+        assertThrows(IllegalArgumentException.class, () -> engine.step(GameEngine.Decision.ofTickets(SortedBag.of(options.get(0)))));
+    }
+
+    @Test
+    void stepRejectsRoutesAndCardsThePlayerCannotUse() {
+        for (long seed = 0; seed < 20; seed++) {
+            GameEngine engine = engineAtFirstTurn(seed);
+            PlayerState playerState = engine.gameState().currentPlayerState();
+            BitSet claimable = playerState.claimableRoutes(engine.gameState());
+            if (claimable.isEmpty()) continue;
+
+            engine.step(GameEngine.Decision.ofTurnKind(Player.TurnKind.CLAIM_ROUTE));
+            Route notClaimable = ChMap.routes().get(claimable.nextClearBit(0));
+            Route notOnTheMap = new Route("XXX_1", notClaimable.station1(), notClaimable.station2(),
+                    notClaimable.length(), notClaimable.level(), notClaimable.color());
+            assertThrows(IllegalArgumentException.class, () -> engine.step(GameEngine.Decision.ofRoute(notClaimable)));
+            assertThrows(IllegalArgumentException.class, () -> engine.step(GameEngine.Decision.ofRoute(notOnTheMap)));
+
+            Route route = ChMap.routes().get(claimable.nextSetBit(0));
+            engine.step(GameEngine.Decision.ofRoute(route));
+            //cards the player does not have
+            SortedBag<Card> locomotives = SortedBag.of(route.length(), Card.LOCOMOTIVE);
+            if (!playerState.possibleClaimCards(route).contains(locomotives)) {
+                assertThrows(IllegalArgumentException.class, () -> engine.step(GameEngine.Decision.ofCards(locomotives)));
+            }
+            int discards = engine.gameState().cardState().discardsSize();
+            assertThrows(IllegalArgumentException.class, () -> engine.step(GameEngine.Decision.ofCards(SortedBag.of())));
+            assertEquals(discards, engine.gameState().cardState().discardsSize());
+            assertEquals(0, engine.gameState().currentPlayerState().routes().size());
+            return;
+        }
+        fail("no player could claim a route at the first turn");
+    }
+}
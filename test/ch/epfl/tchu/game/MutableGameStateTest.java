@@ -0,0 +1,136 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of MutableGameState
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public class MutableGameStateTest {
+    private static final int GAMES_COUNT = 50;
+    private static final int MAX_TURNS = 200;
+
+    //everything a GameState is made of, in a form which can be compared with equals
+    private static List<Object> contents(GameState state) {
+        List<Object> contents = new ArrayList<>();
+        contents.add(state.ticketDeck().cards());
+        contents.add(state.cardState().deck().cards());
+        contents.add(state.cardState().faceUpCards());
+        contents.add(state.cardState().discards());
+        contents.add(state.currentPlayerId());
+        contents.add(state.lastPlayer());
+        for (PlayerId id : PlayerId.ALL) {
+            PlayerState playerState = state.playerState(id);
+            contents.add(playerState.tickets());
+            contents.add(playerState.cards());
+            contents.add(playerState.routes());
+            contents.add(playerState.carCount());
+            contents.add(playerState.claimPoints());
+        }
+        return contents;
+    }
+
+    //compares the GameState built from the mutable state, and the counters the mutable state keeps on its own
+    private static void assertSameState(GameState expected, MutableGameState actual) {
+        assertEquals(contents(expected), contents(actual.toGameState()));
+        assertEquals(expected.ticketsCount(), actual.ticketsCount());
+        assertEquals(expected.cardState().deckSize(), actual.deckSize());
+        assertEquals(expected.cardState().discardsSize(), actual.discardsSize());
+        for (PlayerId id : PlayerId.ALL) {
+            PlayerState playerState = expected.playerState(id);
+            assertEquals(playerState.cardCount(), actual.cardCount(id));
+            assertEquals(playerState.carCount(), actual.carCount(id));
+            assertEquals(playerState.claimPoints(), actual.claimPoints(id));
+        }
+    }
+
+    private static <T extends Comparable<T>> SortedBag<T> randomSubset(SortedBag<T> bag, Random random) {
+        SortedBag.Builder<T> builder = new SortedBag.Builder<>();
+        for (T t : bag) if (random.nextBoolean()) builder.add(t);
+        return builder.size() == 0 ? SortedBag.of(bag.get(0)) : builder.build();
+    }
+
+    @Test
+    void transitionsAreTheSameAsTheOnesOfGameStateAndCanAllBeUndone() {
+        for (int game = 0; game < GAMES_COUNT; game++) {
+            Random random = new Random(game);
+            GameState state = GameState.initial(SortedBag.of(ChMap.tickets()), GameRandom.of(game));
+            MutableGameState mutable = MutableGameState.of(state);
+            GameState initialState = state;
+            //the same stream shuffles both decks
+            SplittableRandom stateRng = new SplittableRandom(game), mutableRng = new SplittableRandom(game);
+
+            for (PlayerId id : PlayerId.ALL) {
+                SortedBag<Ticket> chosen = randomSubset(state.topTickets(Constants.INITIAL_TICKETS_COUNT), random);
+                state = state.withInitiallyChosenTickets(id, chosen).withoutTopTickets(Constants.INITIAL_TICKETS_COUNT);
+                mutable.chooseInitialTickets(id, chosen);
+                mutable.removeTopTickets(Constants.INITIAL_TICKETS_COUNT);
+            }
+            assertSameState(state, mutable);
+
+            for (int turn = 0; turn < MAX_TURNS && !(state.lastPlayer() != null && state.currentPlayerId() == state.lastPlayer()); turn++) {
+                PlayerState playerState = state.currentPlayerState();
+                BitSet claimable = playerState.claimableRoutes(state);
+                int action = random.nextInt(4);
+                if (action == 0 && !claimable.isEmpty()) {
+                    int[] indexes = claimable.stream().toArray();
+                    Route route = ChMap.routes().get(indexes[random.nextInt(indexes.length)]);
+                    List<SortedBag<Card>> options = playerState.possibleClaimCards(route);
+                    SortedBag<Card> claimCards = options.get(random.nextInt(options.size()));
+                    state = state.withClaimedRoute(route, claimCards);
+                    mutable.claimRoute(route, claimCards);
+                } else if (action == 1 && state.cardState().deckSize() >= Constants.ADDITIONAL_TUNNEL_CARDS) {
+                    //the cards drawn for a tunnel
+                    SortedBag.Builder<Card> drawn = new SortedBag.Builder<>();
+                    for (int i = 0; i < Constants.ADDITIONAL_TUNNEL_CARDS; i++) {
+                        assertEquals(state.topCard(), mutable.topCard());
+                        drawn.add(state.topCard());
+                        state = state.withoutTopCard();
+                        mutable.removeTopCard();
+                    }
+                    state = state.withMoreDiscardedCards(drawn.build());
+                    mutable.discard(drawn.build());
+                } else if (action == 2 && state.canDrawTickets()) {
+                    SortedBag<Ticket> drawn = state.topTickets(Math.min(Constants.IN_GAME_TICKETS_COUNT, state.ticketsCount()));
+                    SortedBag<Ticket> chosen = randomSubset(drawn, random);
+                    state = state.withChosenAdditionalTickets(drawn, chosen);
+                    mutable.chooseAdditionalTickets(drawn, chosen);
+                } else if (state.canDrawCards()) {
+                    for (int i = 0; i < 2; i++) {
+                        state = state.withCardsDeckRecreatedIfNeeded(stateRng);
+                        mutable.recreateCardsDeckIfNeeded(mutableRng);
+                        if (state.cardState().isDeckEmpty()) break;
+                        int slot = random.nextInt(Constants.FACE_UP_CARDS_COUNT + 1);
+                        if (slot < Constants.FACE_UP_CARDS_COUNT) {
+                            state = state.withDrawnFaceUpCard(slot);
+                            mutable.drawFaceUpCard(slot);
+                        } else {
+                            state = state.withBlindlyDrawnCard();
+                            mutable.drawBlindly();
+                        }
+                    }
+                }
+                assertSameState(state, mutable);
+
+                assertEquals(state.lastTurnBegins(), mutable.lastTurnBegins());
+                state = state.forNextTurn();
+                mutable.nextTurn();
+                assertSameState(state, mutable);
+            }
+
+            assertTrue(mutable.canUndo());
+            while (mutable.canUndo()) mutable.undo();
+            assertSameState(initialState, mutable);
+            assertFalse(mutable.canUndo());
+        }
+    }
+}
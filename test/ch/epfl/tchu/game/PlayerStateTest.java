@@ -0,0 +1,83 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of PlayerState
+ *
+ * @author Albert Troussard (330361)
+ * @author Ménélik Nouvellon (328132)
+ */
+public class PlayerStateTest {
+    private static final int HANDS_COUNT = 2_000;
+    private static final int MAX_HAND_SIZE = 12;
+
+    //the enumeration of all the subsets of the hand, used by possibleClaimCards before it built the claims directly
+    private static List<SortedBag<Card>> enumeratedClaimCards(SortedBag<Card> cards, Route route) {
+        if (route.level().equals(Route.Level.SKY)) return route.possibleClaimCards();
+        if (cards.isEmpty()) return List.of();
+
+        List<Color> colors = route.color() == null ? Color.ALL : List.of(route.color());
+        Set<SortedBag<Card>> allPossibilities = cards.subsetsOfSize(route.length());
+        List<SortedBag<Card>> result = new ArrayList<>();
+        for (Color color : colors) {
+            for (SortedBag<Card> sd : allPossibilities) {
+                int aux = 0;
+                for (Card cd : sd) {
+                    if (route.level() == Route.Level.UNDERGROUND)
+                        if ((cd.color() == color) || (cd.color() == null)) aux += 1;
+                    if (route.level() == Route.Level.OVERGROUND) if (cd.color() == color) aux += 1;
+                }
+                if (aux == sd.size() && !(sd.contains(Card.PLANE))) result.add(sd);
+            }
+        }
+        List<SortedBag<Card>> list2 = result.stream().distinct().collect(Collectors.toList());
+        list2.sort(Comparator.comparingInt(cs -> cs.countOf(Card.LOCOMOTIVE)));
+        return list2;
+    }
+
+    private static SortedBag<Card> randomHand(Random random) {
+        SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+        int size = random.nextInt(MAX_HAND_SIZE + 1);
+        for (int i = 0; i < size; i++) builder.add(Card.ALL.get(random.nextInt(Card.COUNT)));
+        return builder.build();
+    }
+
+    @Test
+    void possibleClaimCardsIsTheSameAsTheEnumerationOfTheHand() {
+        Random random = new Random(2021);
+        int compared = 0;
+        for (int i = 0; i < HANDS_COUNT; i++) {
+            SortedBag<Card> hand = randomHand(random);
+            PlayerState state = new PlayerState(SortedBag.of(), hand, List.of());
+            for (Route route : ChMap.routes()) {
+                if (route.level() != Route.Level.SKY && hand.size() < route.length()) continue;
+                assertEquals(enumeratedClaimCards(hand, route), state.possibleClaimCards(route),
+                        () -> hand + " on " + route.id());
+                compared++;
+            }
+        }
+        assertTrue(compared > HANDS_COUNT);
+    }
+
+    @Test
+    void possibleClaimCardsIsEmptyForAHandSmallerThanTheRoute() {
+        Random random = new Random(2022);
+        for (int i = 0; i < HANDS_COUNT; i++) {
+            SortedBag<Card> hand = randomHand(random);
+            PlayerState state = new PlayerState(SortedBag.of(), hand, List.of());
+            for (Route route : ChMap.routes()) {
+                if (route.level() == Route.Level.SKY || hand.size() >= route.length()) continue;
+                //the enumeration could not take subsets larger than the hand and threw an exception
+                assertEquals(List.of(), state.possibleClaimCards(route), () -> hand + " on " + route.id());
+            }
+        }
+    }
+}